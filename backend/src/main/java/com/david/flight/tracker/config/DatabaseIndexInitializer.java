@@ -0,0 +1,111 @@
+package com.david.flight.tracker.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates indexes Hibernate's ddl-auto can't express (expression / GiST indexes)
+ *
+ * Indexes are built CONCURRENTLY so ingest keeps writing to a large existing table while
+ * they build. A build that was interrupted leaves an INVALID index behind, which is
+ * dropped and built again. An advisory lock keeps two nodes from building at once.
+ */
+@Component
+public class DatabaseIndexInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseIndexInitializer.class);
+
+    private static final String POSITION_INDEX = "idx_flight_states_position";
+
+    // Separate from the ingest leader lock (cluster.leader-election.lock-key)
+    private static final long BUILD_LOCK_KEY = 727275;
+
+    @Value("${flights.near.history-index.enabled:true}")
+    private boolean historyIndexEnabled;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!historyIndexEnabled) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                buildPositionIndex(connection);
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("⚠️ Could not create spatial index: {}", e.getMessage());
+        }
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private void buildPositionIndex(Connection connection) throws SQLException {
+        // CREATE INDEX CONCURRENTLY cannot run inside a transaction block
+        connection.setAutoCommit(true);
+
+        try (Statement statement = connection.createStatement()) {
+            if (!queryBoolean(statement, "SELECT pg_try_advisory_lock(" + BUILD_LOCK_KEY + ")")) {
+                logger.info("Spatial index is being built by another node - skipping");
+                return;
+            }
+
+            try {
+                Boolean valid = queryValid(statement);
+                if (Boolean.TRUE.equals(valid)) {
+                    logger.info("✅ Spatial index on flight_states ready");
+                    return;
+                }
+                if (valid != null) {
+                    logger.warn("⚠️ Spatial index {} is invalid (interrupted build) - rebuilding", POSITION_INDEX);
+                    statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + POSITION_INDEX);
+                }
+
+                long start = System.currentTimeMillis();
+                // Core Postgres GiST over a point - no PostGIS extension needed
+                statement.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + POSITION_INDEX
+                        + " ON flight_states USING gist (point(longitude, latitude))");
+                logger.info("✅ Spatial index on flight_states built in {} ms", System.currentTimeMillis() - start);
+            } finally {
+                statement.execute("SELECT pg_advisory_unlock(" + BUILD_LOCK_KEY + ")");
+            }
+        }
+    }
+
+    /**
+     * @return null if the index does not exist, otherwise whether it is usable
+     */
+    private Boolean queryValid(Statement statement) throws SQLException {
+        try (ResultSet result = statement.executeQuery("""
+                SELECT i.indisvalid
+                FROM pg_index i
+                JOIN pg_class c ON c.oid = i.indexrelid
+                WHERE c.relname = '""" + POSITION_INDEX + "'")) {
+            return result.next() ? result.getBoolean(1) : null;
+        }
+    }
+
+    private boolean queryBoolean(Statement statement, String sql) throws SQLException {
+        try (ResultSet result = statement.executeQuery(sql)) {
+            return result.next() && result.getBoolean(1);
+        }
+    }
+}
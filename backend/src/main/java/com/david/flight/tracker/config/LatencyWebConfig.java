@@ -0,0 +1,52 @@
+package com.david.flight.tracker.config;
+
+import com.david.flight.tracker.service.LatencyTracker;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Times every /api request and reports it to the LatencyTracker under "METHOD /path/{pattern}"
+ */
+@Configuration
+public class LatencyWebConfig implements WebMvcConfigurer {
+
+    private static final String START_ATTRIBUTE = LatencyWebConfig.class.getName() + ".start";
+    private static final String UNMATCHED = "UNMATCHED";
+
+    @Autowired
+    private LatencyTracker latencyTracker;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                        Object handler, Exception ex) {
+                Object start = request.getAttribute(START_ATTRIBUTE);
+                if (!(start instanceof Long startNanos)) {
+                    return;
+                }
+
+                // Templated path keeps /{icao24}/trail as one entry instead of one per aircraft;
+                // unmatched requests share one entry so random URLs can't grow the histogram map
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String name = request.getMethod() + " " + (pattern != null ? pattern : UNMATCHED);
+                latencyTracker.record(LatencyTracker.Kind.REST, name, System.nanoTime() - startNanos,
+                        request.getQueryString(), -1);
+            }
+        }).addPathPatterns("/api/**");
+    }
+}
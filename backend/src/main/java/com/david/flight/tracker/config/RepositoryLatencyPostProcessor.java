@@ -0,0 +1,73 @@
+package com.david.flight.tracker.config;
+
+import com.david.flight.tracker.service.LatencyTracker;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Adds a timing interceptor to every Spring Data repository proxy.
+ *
+ * Each repository method is recorded as "RepositoryName.method" with its arguments
+ * and the number of rows returned (or affected, for @Modifying queries).
+ * Methods returning a Stream are timed until the stream is opened, not consumed.
+ */
+@Component
+public class RepositoryLatencyPostProcessor implements BeanPostProcessor {
+
+    // Looked up lazily - post-processors are created before ordinary beans
+    private final ObjectProvider<LatencyTracker> latencyTracker;
+
+    public RepositoryLatencyPostProcessor(ObjectProvider<LatencyTracker> latencyTracker) {
+        this.latencyTracker = latencyTracker;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> {
+                        String repositoryName = repositoryInformation.getRepositoryInterface().getSimpleName();
+                        proxyFactory.addAdvice(timing(repositoryName));
+                    }));
+        }
+        return bean;
+    }
+
+    private MethodInterceptor timing(String repositoryName) {
+        return invocation -> {
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = invocation.proceed();
+                return result;
+            } finally {
+                latencyTracker.getObject().record(LatencyTracker.Kind.REPOSITORY,
+                        repositoryName + "." + invocation.getMethod().getName(),
+                        System.nanoTime() - start, invocation.getArguments(), rows(result));
+            }
+        };
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Integer affected) {
+            return affected;
+        }
+        return -1;
+    }
+}
@@ -1,13 +1,22 @@
 package com.david.flight.tracker.controller;
 
 import com.david.flight.tracker.repository.FlightStateRepository;
-import com.david.flight.tracker.service.OpenSkyService;
+import com.david.flight.tracker.service.AdminJobService;
+import com.david.flight.tracker.service.AircraftMetadataService;
+import com.david.flight.tracker.service.FlightStateParser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import com.david.flight.tracker.service.WebSocketService;
+import com.david.flight.tracker.service.LatencyTracker;
+import com.david.flight.tracker.service.LiveFlightStore;
+import com.david.flight.tracker.service.WebSocketSessionMonitor;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -15,66 +24,45 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class AdminController {
 
-    @Autowired
-    private OpenSkyService openSkyService;
-
     @Autowired
     private FlightStateRepository flightStateRepository;
 
     @Autowired
     private WebSocketService webSocketService;
 
-    /**
-     * Manually trigger a flight fetch
-     */
-    @PostMapping("/fetch-now")
-    public Map<String, Object> fetchNow() {
-        Map<String, Object> response = new HashMap<>();
+    @Autowired
+    private WebSocketSessionMonitor sessionMonitor;
 
-        try {
-            int count = openSkyService.fetchAndSaveFlights();
-            long total = flightStateRepository.count();
+    @Autowired
+    private LiveFlightStore liveFlightStore;
 
-            response.put("success", true);
-            response.put("flightsFetched", count);
-            response.put("totalInDatabase", total);
-            response.put("timestamp", LocalDateTime.now().toString());
+    @Autowired
+    private LatencyTracker latencyTracker;
 
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("error", e.getMessage());
-        }
+    @Autowired
+    private AircraftMetadataService aircraftMetadataService;
 
-        return response;
+    @Autowired
+    private FlightStateParser flightStateParser;
+
+    @Autowired
+    private AdminJobService adminJobService;
+
+    /**
+     * Manually trigger a flight fetch
+     * Runs as a job - poll /api/admin/jobs/{id} or subscribe to /topic/admin-jobs
+     */
+    @PostMapping("/fetch-now")
+    public ResponseEntity<Map<String, Object>> fetchNow() {
+        return submit(AdminJobService.Kind.FETCH_NOW, 0);
     }
 
     /**
-     * Clean up old data manually
+     * Clean up old data manually, in batches
      */
     @PostMapping("/cleanup")
-    public Map<String, Object> cleanup(@RequestParam(defaultValue = "24") int hours) {
-        Map<String, Object> response = new HashMap<>();
-
-        try {
-            LocalDateTime cutoff = LocalDateTime.now().minusHours(hours);
-            long countBefore = flightStateRepository.count();
-
-            flightStateRepository.deleteByTimestampBefore(cutoff);
-
-            long countAfter = flightStateRepository.count();
-            long deleted = countBefore - countAfter;
-
-            response.put("success", true);
-            response.put("recordsDeleted", deleted);
-            response.put("recordsRemaining", countAfter);
-            response.put("cutoffTime", cutoff.toString());
-
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("error", e.getMessage());
-        }
-
-        return response;
+    public ResponseEntity<Map<String, Object>> cleanup(@RequestParam(defaultValue = "24") int hours) {
+        return submit(AdminJobService.Kind.CLEANUP, hours);
     }
 
     /**
@@ -97,26 +85,108 @@ public class AdminController {
         health.put("estimatedDatabaseSizeMB", String.format("%.2f", estimatedSizeMB));
         health.put("timestamp", LocalDateTime.now().toString());
 
+        // Warm start - how fast the JVM got to a useful state
+        Map<String, Object> startup = new HashMap<>();
+        startup.put("readyAfterMillis", liveFlightStore.getStartupMillis());
+        startup.put("snapshotLoadMillis", liveFlightStore.getSnapshotLoadMillis());
+        startup.put("snapshotAircraftLoaded", liveFlightStore.getSnapshotAircraftLoaded());
+        startup.put("liveAircraft", liveFlightStore.size());
+        startup.put("liveStoreWarm", liveFlightStore.isWarm());
+        health.put("startup", startup);
+        // p99 over the last few minutes, not since startup
+        health.put("sloViolations", latencyTracker.getViolations());
+        health.put("sloWindowMinutes", latencyTracker.getWindowMinutes());
+        health.put("aircraftMetadataRecords", aircraftMetadataService.getAircraftCount());
+
+        // Cumulative parse counters since startup
+        Map<String, Object> parsing = new HashMap<>();
+        parsing.put("parallelism", flightStateParser.getParallelism());
+        parsing.put("parsed", flightStateParser.getParsedCount());
+        parsing.put("skippedNoPosition", flightStateParser.getSkippedNoPositionCount());
+        parsing.put("rejected", flightStateParser.getRejectedCount());
+        health.put("parsing", parsing);
+
         return health;
     }
 
     /**
-     * Clear entire database (use with caution!)
+     * Latency histograms per REST endpoint and repository method, worst p99 first
      */
-    @PostMapping("/clear-all")
-    public Map<String, Object> clearAll() {
+    @GetMapping("/latency")
+    public Map<String, Object> latency() {
         Map<String, Object> response = new HashMap<>();
+        response.put("stats", latencyTracker.getStats());
+        response.put("sloViolations", latencyTracker.getViolations());
+        response.put("sloWindowMinutes", latencyTracker.getWindowMinutes());
+        response.put("timestamp", LocalDateTime.now().toString());
+        return response;
+    }
+
+    /**
+     * Recent executions that exceeded their SLO, with arguments and row counts
+     */
+    @GetMapping("/slow-queries")
+    public List<LatencyTracker.SlowExecution> slowQueries() {
+        return latencyTracker.getSlowExecutions();
+    }
 
-        long count = flightStateRepository.count();
-        flightStateRepository.deleteAll();
+    /**
+     * Start measuring from scratch (e.g. after a deploy or an index change)
+     */
+    @PostMapping("/latency/reset")
+    public Map<String, Object> resetLatency() {
+        latencyTracker.reset();
 
+        Map<String, Object> response = new HashMap<>();
         response.put("success", true);
-        response.put("recordsDeleted", count);
-        response.put("message", "Database cleared completely");
-
         return response;
     }
 
+    /**
+     * Clear entire database (use with caution!)
+     * Truncates the positions table as a job rather than deleting row by row
+     */
+    @PostMapping("/clear-all")
+    public ResponseEntity<Map<String, Object>> clearAll() {
+        return submit(AdminJobService.Kind.CLEAR_ALL, 0);
+    }
+
+    /**
+     * Recent admin jobs, newest first
+     */
+    @GetMapping("/jobs")
+    public List<Map<String, Object>> jobs() {
+        return adminJobService.getJobs();
+    }
+
+    /**
+     * Status and progress of one admin job
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<Map<String, Object>> job(@PathVariable String id) {
+        AdminJobService.AdminJob job = adminJobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job.describe());
+    }
+
+    /**
+     * Stop a running job after its current batch
+     */
+    @PostMapping("/jobs/{id}/cancel")
+    public ResponseEntity<Map<String, Object>> cancelJob(@PathVariable String id) {
+        AdminJobService.AdminJob job = adminJobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", adminJobService.cancel(id));
+        response.put("job", job.describe());
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get WebSocket statistics
      */
@@ -129,10 +199,54 @@ public class AdminController {
         stats.put("topics", new String[]{
                 "/topic/flight-updates",
                 "/topic/statistics",
-                "/topic/notifications"
+                "/topic/notifications",
+                "/topic/aircraft",
+                "/topic/flight-events",
+                "/topic/airspace-counts",
+                "/topic/geofences/{id}",
+                "/topic/admin-jobs"
         });
         stats.put("status", "active");
 
+        // Back-pressure metrics
+        stats.put("sessions", sessionMonitor.getSessionCount());
+        stats.put("totalQueueDepth", sessionMonitor.getTotalQueueDepth());
+        stats.put("conflatedDropped", sessionMonitor.getConflatedDropped());
+        stats.put("slowConsumersDisconnected", sessionMonitor.getSlowConsumersDisconnected());
+        stats.put("deepestQueues", sessionMonitor.getSessionStats(20));
+
         return stats;
     }
-}
\ No newline at end of file
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    /**
+     * 202 with the new job, or 409 with the job of the same kind that is still running
+     * 400 for a bad hours value, 409 for a fetch on a node that is not the ingest leader
+     */
+    private ResponseEntity<Map<String, Object>> submit(AdminJobService.Kind kind, int hours) {
+        AdminJobService.Submission submission;
+        try {
+            submission = adminJobService.submit(kind, hours);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+        String jobId = submission.job().getId();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", submission.started());
+        response.put("job", submission.job().describe());
+        response.put("statusUrl", "/api/admin/jobs/" + jobId);
+        response.put("topic", "/topic/admin-jobs");
+
+        if (!submission.started()) {
+            response.put("error", "A " + kind + " job is already running");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        return ResponseEntity.accepted().body(response);
+    }
+}
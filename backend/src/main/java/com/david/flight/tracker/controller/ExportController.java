@@ -0,0 +1,51 @@
+package com.david.flight.tracker.controller;
+
+import com.david.flight.tracker.service.FlightExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    @Autowired
+    private FlightExportService flightExportService;
+
+    /**
+     * Stream flight history between two times as gzipped CSV
+     * Memory use is constant - rows are written as they are read from the database
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "true") boolean compress) {
+        if (!"csv".equalsIgnoreCase(format)) {
+            // Parquet would pull in the Hadoop client libraries - CSV + gzip covers the analysts' tools
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported format: " + format + " (supported: csv)");
+        }
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+
+        String filename = "flights.csv" + (compress ? ".gz" : "");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDisposition(ContentDisposition.attachment().filename(filename).build());
+        headers.setContentType(compress ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType("text/csv"));
+
+        StreamingResponseBody body = out -> flightExportService.exportCsv(from, to, out, compress);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+}
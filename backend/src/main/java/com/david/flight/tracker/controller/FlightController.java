@@ -1,60 +1,222 @@
 package com.david.flight.tracker.controller;
 
+import com.david.flight.tracker.dto.FlightPage;
+import com.david.flight.tracker.dto.NearbyFlight;
 import com.david.flight.tracker.model.entity.FlightState;
+import com.david.flight.tracker.model.entity.RegionHourlyStats;
 import com.david.flight.tracker.repository.FlightStateRepository;
+import com.david.flight.tracker.service.FlightEventProcessor;
+import com.david.flight.tracker.service.FlightExportService;
+import com.david.flight.tracker.service.FlightHistoryService;
+import com.david.flight.tracker.service.LiveFlightStore;
+import com.david.flight.tracker.service.NearbyFlightIndex;
+import com.david.flight.tracker.service.ResponseCacheService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/flights")
 @CrossOrigin(origins = "*")  // Allow frontend to call this API
 public class FlightController {
 
+    // Trails older than this are past rollup retention anyway
+    private static final int MAX_TRAIL_HOURS = 30 * 24;
+
     @Autowired
     private FlightStateRepository flightStateRepository;
 
+    @Autowired
+    private ResponseCacheService responseCacheService;
+
+    @Autowired
+    private FlightEventProcessor flightEventProcessor;
+
+    @Autowired
+    private NearbyFlightIndex nearbyFlightIndex;
+
+    @Autowired
+    private FlightHistoryService flightHistoryService;
+
+    @Autowired
+    private FlightExportService flightExportService;
+
+    @Autowired
+    private LiveFlightStore liveFlightStore;
+
     /**
      * Get current positions of all flights
      * This is what your map will call
+     * Cached per ingest cycle - repeat requests get the same bytes or a 304
+     *
+     * With limit/cursor returns one page ordered by icao24; with format=ndjson streams every aircraft
      */
     @GetMapping("/current")
-    public List<FlightState> getCurrentFlights() {
-        // Get flights updated in the last 5 minutes
-        LocalDateTime fiveMinutesAgo = LocalDateTime.now().minusMinutes(5);
-        return flightStateRepository.findLatestPositions(fiveMinutesAgo);
+    public ResponseEntity<?> getCurrentFlights(@RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer limit,
+                                               @RequestParam(required = false) String format,
+                                               HttpServletRequest request) {
+        if (Pagination.isNdjson(format)) {
+            return flightExportService.ndjson(() ->
+                    flightStateRepository.streamLatestPositions(LocalDateTime.now().minusMinutes(5)));
+        }
+
+        if (cursor == null && limit == null) {
+            return responseCacheService.serve("current", request, () -> {
+                // Get flights updated in the last 5 minutes - from memory when the live store is up to date
+                LocalDateTime fiveMinutesAgo = LocalDateTime.now().minusMinutes(5);
+                if (liveFlightStore.isWarm()) {
+                    return liveFlightStore.getCurrentFlights(fiveMinutesAgo);
+                }
+                return flightStateRepository.findLatestPositions(fiveMinutesAgo);
+            });
+        }
+
+        int pageSize = Pagination.pageSize(limit);
+        return responseCacheService.serve("current:" + cursor + ":" + pageSize, request, () -> {
+            List<FlightState> rows = flightStateRepository.findLatestPositionsAfter(
+                    LocalDateTime.now().minusMinutes(5), cursor != null ? cursor : "", pageSize + 1);
+            return FlightPage.of(rows, pageSize, FlightState::getIcao24);
+        });
     }
 
     /**
      * Get flight trail for specific aircraft
+     * Defaults to the last 2 hours; longer trails fall back to 5-minute rollups past raw retention
      */
     @GetMapping("/{icao24}/trail")
-    public List<FlightState> getFlightTrail(@PathVariable String icao24) {
-        // Get trail from last 2 hours
-        LocalDateTime twoHoursAgo = LocalDateTime.now().minusHours(2);
-        return flightStateRepository.findFlightTrail(icao24, twoHoursAgo);
+    public ResponseEntity<?> getFlightTrail(@PathVariable String icao24,
+                                            @RequestParam(defaultValue = "2") int hours,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String format,
+                                            HttpServletRequest request) {
+        if (hours <= 0 || hours > MAX_TRAIL_HOURS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "hours must be between 1 and " + MAX_TRAIL_HOURS);
+        }
+
+        if (Pagination.isNdjson(format)) {
+            return flightExportService.ndjson(
+                    flightHistoryService.streamTrail(icao24, LocalDateTime.now().minusHours(hours)));
+        }
+
+        if (cursor == null && limit == null) {
+            return responseCacheService.serve("trail:" + icao24 + ":" + hours, request, () -> {
+                LocalDateTime since = LocalDateTime.now().minusHours(hours);
+                List<FlightState> recent = liveFlightStore.getTrail(icao24, since);
+                return recent != null ? recent : flightHistoryService.getTrail(icao24, since);
+            });
+        }
+
+        int pageSize = Pagination.pageSize(limit);
+        try {
+            return responseCacheService.serve("trail:" + icao24 + ":" + hours + ":" + cursor + ":" + pageSize, request, () ->
+                    flightHistoryService.getTrailPage(icao24, LocalDateTime.now().minusHours(hours), cursor, pageSize));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Find aircraft near a point, closest first
+     * radius in km, k = max results; with from/to searches history instead of live positions
+     */
+    @GetMapping("/near")
+    public List<NearbyFlight> getNearbyFlights(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(required = false) Double radius,
+            @RequestParam(required = false) Integer k,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lat/lon out of range");
+        }
+        if ((radius != null && radius <= 0) || (k != null && k <= 0)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "radius and k must be positive");
+        }
+
+        if (from != null || to != null) {
+            LocalDateTime end = to != null ? to : LocalDateTime.now();
+            LocalDateTime start = from != null ? from : end.minusHours(1);
+            return nearbyFlightIndex.findPassedNear(lat, lon, radius != null ? radius : 50, start, end, k);
+        }
+
+        // Neither given - default to everything within 100 km
+        if (radius == null && k == null) {
+            radius = 100.0;
+        }
+        return nearbyFlightIndex.findNearby(lat, lon, radius, k);
     }
 
     /**
      * Search flights by callsign
+     * Returns one page ordered by id (the first page without a cursor); with format=ndjson streams every match
      */
     @GetMapping("/search")
-    public List<FlightState> searchFlights(@RequestParam String callsign) {
-        return flightStateRepository.findByCallsignContainingIgnoreCase(callsign);
+    public ResponseEntity<?> searchFlights(@RequestParam String callsign,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer limit,
+                                           @RequestParam(required = false) String format) {
+        if (Pagination.isNdjson(format)) {
+            return flightExportService.ndjson(() ->
+                    flightStateRepository.streamByCallsignContainingIgnoreCaseOrderByIdAsc(callsign));
+        }
+
+        return ResponseEntity.ok(FlightPage.of(
+                flightStateRepository.findByCallsignContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                        callsign, Pagination.idCursor(cursor), PageRequest.of(0, Pagination.pageSize(limit))),
+                flight -> flight.getId().toString()));
     }
 
     /**
      * Get statistics
      */
     @GetMapping("/stats")
-    public FlightStats getStats() {
-        LocalDateTime fiveMinutesAgo = LocalDateTime.now().minusMinutes(5);
-        long totalFlights = flightStateRepository.count();
-        long currentlyFlying = flightStateRepository.countByOnGroundFalseAndTimestampAfter(fiveMinutesAgo);
+    public ResponseEntity<byte[]> getStats(HttpServletRequest request) {
+        return responseCacheService.serve("stats", request, () -> {
+            LocalDateTime fiveMinutesAgo = LocalDateTime.now().minusMinutes(5);
+            long totalFlights = flightStateRepository.count();
+            long currentlyFlying = flightStateRepository.countByOnGroundFalseAndTimestampAfter(fiveMinutesAgo);
 
-        return new FlightStats(totalFlights, currentlyFlying);
+            return new FlightStats(totalFlights, currentlyFlying);
+        });
+    }
+
+    /**
+     * Live airborne aircraft counts per origin country and 10° region
+     * Same data as /topic/airspace-counts, for the initial page load
+     */
+    @GetMapping("/airspace")
+    public Map<String, Object> getAirspaceCounts() {
+        Map<String, Object> counts = new HashMap<>();
+        counts.put("byCountry", flightEventProcessor.getCountryCounts());
+        counts.put("byRegion", flightEventProcessor.getRegionCounts());
+        counts.put("trackedAircraft", flightEventProcessor.getTrackedAircraft());
+        return counts;
+    }
+
+    /**
+     * Hourly aircraft counts per 10° region
+     * Served from the long-term aggregates, with the latest hours computed from raw data
+     */
+    @GetMapping("/stats/history")
+    public List<RegionHourlyStats> getStatsHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(24);
+        return flightHistoryService.getRegionHourlyStats(start, end);
     }
 
     // Inner class for stats response
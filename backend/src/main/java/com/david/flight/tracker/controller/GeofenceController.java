@@ -0,0 +1,97 @@
+package com.david.flight.tracker.controller;
+
+import com.david.flight.tracker.dto.GeofenceRequest;
+import com.david.flight.tracker.model.entity.Geofence;
+import com.david.flight.tracker.repository.GeofenceRepository;
+import com.david.flight.tracker.service.GeofenceAlertService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/geofences")
+@CrossOrigin(origins = "*")
+public class GeofenceController {
+
+    @Autowired
+    private GeofenceRepository geofenceRepository;
+
+    @Autowired
+    private GeofenceAlertService geofenceAlertService;
+
+    /**
+     * Register a geofence polygon
+     * Alerts are pushed to /topic/geofences/{id}
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createGeofence(@RequestBody GeofenceRequest request) {
+        String error = validate(request);
+        if (error != null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", error);
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        Geofence geofence = new Geofence();
+        geofence.setName(request.getName());
+        geofence.setPolygon(request.getPoints().stream()
+                .map(point -> point[0] + "," + point[1])
+                .collect(Collectors.joining(";")));
+        geofenceRepository.save(geofence);
+        geofenceAlertService.reload();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("geofence", geofence);
+        response.put("topic", "/topic/geofences/" + geofence.getId());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * List all registered geofences
+     */
+    @GetMapping
+    public List<Geofence> getGeofences() {
+        return geofenceRepository.findAll();
+    }
+
+    /**
+     * Remove a geofence
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> deleteGeofence(@PathVariable Long id) {
+        if (!geofenceRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        geofenceRepository.deleteById(id);
+        geofenceAlertService.reload();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("deletedId", id);
+        return ResponseEntity.ok(response);
+    }
+
+    private String validate(GeofenceRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            return "name is required";
+        }
+        if (request.getPoints() == null || request.getPoints().size() < 3) {
+            return "points must contain at least 3 [latitude, longitude] pairs";
+        }
+        for (double[] point : request.getPoints()) {
+            if (point == null || point.length != 2
+                    || point[0] < -90 || point[0] > 90 || point[1] < -180 || point[1] > 180) {
+                return "each point must be [latitude, longitude] within valid ranges";
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,57 @@
+package com.david.flight.tracker.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Request parameter handling shared by the paginated listing endpoints
+ * (?cursor=&limit= pages, or the whole result streamed with format=ndjson).
+ *
+ * Bad values are rejected with 400 Bad Request.
+ */
+public final class Pagination {
+
+    // Page size when a cursor is given without a limit, and the largest allowed
+    public static final int DEFAULT_PAGE_SIZE = 500;
+    public static final int MAX_PAGE_SIZE = 5000;
+
+    private Pagination() {
+    }
+
+    /**
+     * true for format=ndjson, false for json or no format
+     */
+    public static boolean isNdjson(String format) {
+        if (format == null || format.equalsIgnoreCase("json")) {
+            return false;
+        }
+        if (format.equalsIgnoreCase("ndjson")) {
+            return true;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported format: " + format + " (supported: json, ndjson)");
+    }
+
+    public static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    /**
+     * Cursor for id-ordered listings - the id of the last row of the previous page
+     */
+    public static long idCursor(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+        }
+    }
+}
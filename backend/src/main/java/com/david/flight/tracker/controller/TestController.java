@@ -1,16 +1,21 @@
 package com.david.flight.tracker.controller;
 
+import com.david.flight.tracker.dto.FlightPage;
 import com.david.flight.tracker.model.entity.FlightState;
 import com.david.flight.tracker.repository.FlightStateRepository;
+import com.david.flight.tracker.service.FlightExportService;
+import com.david.flight.tracker.service.IngestCycleService;
 import com.david.flight.tracker.service.OpenSkyService;
 import com.david.flight.tracker.service.WebSocketService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/test")
@@ -25,9 +30,18 @@ public class TestController {
     @Autowired
     private WebSocketService webSocketService;
 
+    @Autowired
+    private IngestCycleService ingestCycleService;
+
+    @Autowired
+    private FlightExportService flightExportService;
+
     @GetMapping("/fetch-flights")
     public String fetchFlights() {
         int count = openSkyService.fetchAndSaveFlights();
+        if (count == OpenSkyService.FETCH_IN_PROGRESS) {
+            return "⏳ A fetch is already in progress - try again shortly";
+        }
 
         // Broadcast to WebSocket clients
         webSocketService.broadcastFlightUpdate(count);
@@ -66,13 +80,26 @@ public class TestController {
         testFlight.setTimestamp(LocalDateTime.now());
 
         flightStateRepository.save(testFlight);
+        ingestCycleService.invalidate();
 
         return "✈️ Test flight created! ID: " + testFlight.getId();
     }
 
+    /**
+     * Every stored position, one page at a time (?cursor=&limit=) or streamed with format=ndjson
+     * Never loads the whole table - use /api/export for bulk history
+     */
     @GetMapping("/all")
-    public List<FlightState> getAllFlights() {
-        return flightStateRepository.findAll();
+    public ResponseEntity<?> getAllFlights(@RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer limit,
+                                           @RequestParam(required = false) String format) {
+        if (Pagination.isNdjson(format)) {
+            return flightExportService.ndjson(flightStateRepository::streamAllOrderById);
+        }
+        return ResponseEntity.ok(FlightPage.of(
+                flightStateRepository.findByIdGreaterThanOrderByIdAsc(
+                        Pagination.idCursor(cursor), PageRequest.of(0, Pagination.pageSize(limit))),
+                flight -> flight.getId().toString()));
     }
 
     @GetMapping("/count")
@@ -84,7 +111,8 @@ public class TestController {
     @GetMapping("/clear")
     public String clearDatabase() {
         long count = flightStateRepository.count();
-        flightStateRepository.deleteAll();
+        flightStateRepository.truncate();
+        ingestCycleService.invalidate();
 
         // Notify WebSocket clients
         webSocketService.broadcastNotification("Database cleared", "WARNING");
@@ -0,0 +1,44 @@
+package com.david.flight.tracker.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One aircraft's closest recorded position to a query point - a projection of the
+ * flight_states row plus its distance, so only the winning row per aircraft is loaded
+ */
+public interface ClosestApproach {
+
+    Long getId();
+
+    String getIcao24();
+
+    String getCallsign();
+
+    String getOriginCountry();
+
+    String getRegistration();
+
+    String getAircraftType();
+
+    String getAircraftModel();
+
+    String getOperator();
+
+    LocalDateTime getTimestamp();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    Double getAltitude();
+
+    Double getVelocity();
+
+    Double getHeading();
+
+    Double getVerticalRate();
+
+    Boolean getOnGround();
+
+    Double getDistanceKm();
+}
@@ -0,0 +1,38 @@
+package com.david.flight.tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightEvent {
+
+    public enum Type {
+        TAKEOFF,
+        LANDING,
+        STEEP_DESCENT,
+        VELOCITY_JUMP,
+        HEADING_JUMP
+    }
+
+    private Type type;
+
+    private String icao24;
+
+    private String callsign;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    private Double altitude;
+
+    // Human readable reason, e.g. "Vertical rate -22.5 m/s"
+    private String detail;
+
+    private LocalDateTime timestamp;
+}
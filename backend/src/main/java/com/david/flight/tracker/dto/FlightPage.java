@@ -0,0 +1,42 @@
+package com.david.flight.tracker.dto;
+
+import com.david.flight.tracker.model.entity.FlightState;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated flight listing
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightPage {
+
+    private List<FlightState> items;
+
+    // Pass back as ?cursor= to get the next page; null on the last page
+    private String nextCursor;
+
+    public static FlightPage of(Slice<FlightState> slice, Function<FlightState, String> cursorOf) {
+        List<FlightState> items = slice.getContent();
+        String next = slice.hasNext() ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new FlightPage(items, next);
+    }
+
+    /**
+     * Page from a query that fetched limit + 1 rows - the extra row only signals there is more
+     */
+    public static FlightPage of(List<FlightState> rows, int limit, Function<FlightState, String> cursorOf) {
+        if (rows.size() <= limit) {
+            return new FlightPage(rows, null);
+        }
+        List<FlightState> items = new ArrayList<>(rows.subList(0, limit));
+        return new FlightPage(items, cursorOf.apply(items.get(limit - 1)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.david.flight.tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeofenceEvent {
+
+    public enum Type {
+        ENTER,
+        EXIT,
+        // Stopped reporting while inside - no longer tracked in the fence
+        LOST
+    }
+
+    private Type type;
+
+    private Long geofenceId;
+
+    private String geofenceName;
+
+    private String icao24;
+
+    private String callsign;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    private Double altitude;
+
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,14 @@
+package com.david.flight.tracker.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class GeofenceRequest {
+
+    private String name;
+
+    // Polygon vertices as [latitude, longitude] pairs
+    private List<double[]> points;
+}
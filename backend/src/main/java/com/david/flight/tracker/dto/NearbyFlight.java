@@ -0,0 +1,17 @@
+package com.david.flight.tracker.dto;
+
+import com.david.flight.tracker.model.entity.FlightState;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyFlight {
+
+    private FlightState flight;
+
+    // Great-circle distance from the query point
+    private double distanceKm;
+}
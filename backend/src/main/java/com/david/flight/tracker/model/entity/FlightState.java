@@ -8,12 +8,18 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "flight_states")
+@Table(name = "flight_states", indexes = @Index(name = "idx_flight_states_timestamp", columnList = "timestamp"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class FlightState {
 
+    // Column sizes for the aircraft metadata fields - longer values are cut to fit
+    public static final int REGISTRATION_LENGTH = 20;
+    public static final int AIRCRAFT_TYPE_LENGTH = 10;
+    public static final int AIRCRAFT_MODEL_LENGTH = 100;
+    public static final int OPERATOR_LENGTH = 100;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -27,6 +33,19 @@ public class FlightState {
     @Column(name = "origin_country", length = 100)
     private String originCountry;
 
+    // Aircraft metadata joined at ingest from the aircraft database - null if unknown
+    @Column(length = REGISTRATION_LENGTH)
+    private String registration;
+
+    @Column(name = "aircraft_type", length = AIRCRAFT_TYPE_LENGTH)
+    private String aircraftType;
+
+    @Column(name = "aircraft_model", length = AIRCRAFT_MODEL_LENGTH)
+    private String aircraftModel;
+
+    @Column(name = "operator_name", length = OPERATOR_LENGTH)
+    private String operator;
+
     @Column(nullable = false)
     private Double latitude;
 
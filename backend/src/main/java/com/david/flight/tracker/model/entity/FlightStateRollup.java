@@ -0,0 +1,95 @@
+package com.david.flight.tracker.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Downsampled history: the last position of each aircraft in each 5-minute bucket
+ */
+@Entity
+@Table(name = "flight_state_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rollup_icao24_bucket", columnNames = {"icao24", "bucket_start"}),
+        indexes = @Index(name = "idx_rollup_bucket", columnList = "bucket_start"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightStateRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 6)
+    private String icao24;
+
+    @Column(length = 8)
+    private String callsign;
+
+    @Column(name = "origin_country", length = 100)
+    private String originCountry;
+
+    // Aircraft metadata carried over from the raw position so older trails stay enriched
+    @Column(length = FlightState.REGISTRATION_LENGTH)
+    private String registration;
+
+    @Column(name = "aircraft_type", length = FlightState.AIRCRAFT_TYPE_LENGTH)
+    private String aircraftType;
+
+    @Column(name = "aircraft_model", length = FlightState.AIRCRAFT_MODEL_LENGTH)
+    private String aircraftModel;
+
+    @Column(name = "operator_name", length = FlightState.OPERATOR_LENGTH)
+    private String operator;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private Double latitude;
+
+    @Column(nullable = false)
+    private Double longitude;
+
+    private Double altitude;
+
+    private Double velocity;
+
+    private Double heading;
+
+    @Column(name = "vertical_rate")
+    private Double verticalRate;
+
+    @Column(name = "on_ground", nullable = false)
+    private Boolean onGround = false;
+
+    // Timestamp of the raw position this rollup was taken from
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+
+    /**
+     * Present the rollup like a raw position so trails can mix both tiers
+     */
+    public FlightState toFlightState() {
+        FlightState flight = new FlightState();
+        flight.setIcao24(icao24);
+        flight.setCallsign(callsign);
+        flight.setOriginCountry(originCountry);
+        flight.setRegistration(registration);
+        flight.setAircraftType(aircraftType);
+        flight.setAircraftModel(aircraftModel);
+        flight.setOperator(operator);
+        flight.setLatitude(latitude);
+        flight.setLongitude(longitude);
+        flight.setAltitude(altitude);
+        flight.setVelocity(velocity);
+        flight.setHeading(heading);
+        flight.setVerticalRate(verticalRate);
+        flight.setOnGround(onGround);
+        flight.setTimestamp(timestamp);
+        return flight;
+    }
+}
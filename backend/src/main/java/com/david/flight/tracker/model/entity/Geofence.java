@@ -0,0 +1,35 @@
+package com.david.flight.tracker.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "geofences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Geofence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    // Polygon vertices as "lat,lon;lat,lon;..." - first vertex is not repeated at the end
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String polygon;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,44 @@
+package com.david.flight.tracker.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Long-term history: aircraft counts per hour per 10° region (kept indefinitely)
+ */
+@Entity
+@Table(name = "region_hourly_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_region_hour", columnNames = {"hour_start", "lat_cell", "lon_cell"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegionHourlyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hour_start", nullable = false)
+    private LocalDateTime hourStart;
+
+    // South-west corner of the region cell, see FlightEventProcessor.regionKey
+    @Column(name = "lat_cell", nullable = false)
+    private Integer latCell;
+
+    @Column(name = "lon_cell", nullable = false)
+    private Integer lonCell;
+
+    // Distinct aircraft seen in the region during the hour
+    @Column(name = "aircraft_count", nullable = false)
+    private Long aircraftCount;
+
+    @Column(name = "airborne_count", nullable = false)
+    private Long airborneCount;
+
+    @Column(name = "position_count", nullable = false)
+    private Long positionCount;
+}
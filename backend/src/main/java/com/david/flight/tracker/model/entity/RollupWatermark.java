@@ -0,0 +1,27 @@
+package com.david.flight.tracker.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far raw data has been compacted into a rollup tier
+ */
+@Entity
+@Table(name = "rollup_watermarks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupWatermark {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    // Everything before this time has been compacted
+    @Column(nullable = false)
+    private LocalDateTime watermark;
+}
@@ -1,9 +1,15 @@
 package com.david.flight.tracker.repository;
 
+import com.david.flight.tracker.dto.ClosestApproach;
 import com.david.flight.tracker.model.entity.FlightState;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
@@ -11,10 +17,14 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface FlightStateRepository extends JpaRepository<FlightState, Long> {
 
+    // Rows per round-trip for the Stream methods - they must be consumed inside a transaction
+    String STREAM_FETCH_SIZE = "1000";
+
     /**
      * Find the latest position for each unique aircraft
      * OPTIMIZED VERSION - uses window functions instead of subquery
@@ -26,6 +36,10 @@ public interface FlightStateRepository extends JpaRepository<FlightState, Long>
             icao24,
             callsign,
             origin_country,
+            registration,
+            aircraft_type,
+            aircraft_model,
+            operator_name,
             timestamp,
             latitude,
             longitude,
@@ -45,6 +59,10 @@ public interface FlightStateRepository extends JpaRepository<FlightState, Long>
         icao24,
         callsign,
         origin_country,
+        registration,
+        aircraft_type,
+        aircraft_model,
+        operator_name,
         timestamp,
         latitude,
         longitude,
@@ -60,6 +78,41 @@ public interface FlightStateRepository extends JpaRepository<FlightState, Long>
     """, nativeQuery = true)
     List<FlightState> findLatestPositions(@Param("since") LocalDateTime since);
 
+    /**
+     * Latest airborne position per aircraft, one keyset page ordered by icao24
+     * Pass "" as afterIcao24 for the first page
+     */
+    @Query(value = """
+        SELECT * FROM (
+            SELECT DISTINCT ON (icao24) *
+            FROM flight_states
+            WHERE timestamp > :since
+            AND on_ground = false
+            AND icao24 > :afterIcao24
+            ORDER BY icao24, timestamp DESC
+        ) latest
+        ORDER BY icao24
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<FlightState> findLatestPositionsAfter(
+            @Param("since") LocalDateTime since,
+            @Param("afterIcao24") String afterIcao24,
+            @Param("limit") int limit
+    );
+
+    /**
+     * Latest airborne position per aircraft, streamed in icao24 order
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(value = """
+        SELECT DISTINCT ON (icao24) *
+        FROM flight_states
+        WHERE timestamp > :since
+        AND on_ground = false
+        ORDER BY icao24, timestamp DESC
+        """, nativeQuery = true)
+    Stream<FlightState> streamLatestPositions(@Param("since") LocalDateTime since);
+
     /**
      * Find all positions for a specific aircraft (for trail visualization)
      */
@@ -75,9 +128,118 @@ public interface FlightStateRepository extends JpaRepository<FlightState, Long>
     );
 
     /**
-     * Find flights by callsign (flight number search)
+     * One keyset page of a trail, newest first
+     * Continues after the (timestamp, id) of the last row of the previous page
      */
-    List<FlightState> findByCallsignContainingIgnoreCase(String callsign);
+    @Query("""
+        SELECT f FROM FlightState f
+        WHERE f.icao24 = :icao24
+        AND f.timestamp > :since
+        AND (f.timestamp < :beforeTimestamp OR (f.timestamp = :beforeTimestamp AND f.id < :beforeId))
+        ORDER BY f.timestamp DESC, f.id DESC
+        """)
+    Slice<FlightState> findFlightTrailBefore(
+            @Param("icao24") String icao24,
+            @Param("since") LocalDateTime since,
+            @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+            @Param("beforeId") long beforeId,
+            Pageable pageable
+    );
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("""
+        SELECT f FROM FlightState f
+        WHERE f.icao24 = :icao24
+        AND f.timestamp > :since
+        ORDER BY f.timestamp DESC, f.id DESC
+        """)
+    Stream<FlightState> streamFlightTrail(
+            @Param("icao24") String icao24,
+            @Param("since") LocalDateTime since
+    );
+
+    /**
+     * Closest recorded approach per aircraft to a point within a time range, nearest first
+     *
+     * Candidates come from up to two lat/lon boxes (two when the search area crosses the
+     * antimeridian - pass the first box twice otherwise); the point expression matches the
+     * GiST index created by DatabaseIndexInitializer. Haversine filtering, one row per
+     * aircraft and the limit all happen in the database.
+     */
+    @Query(value = """
+        SELECT id, icao24, callsign, origin_country AS "originCountry", registration,
+               aircraft_type AS "aircraftType", aircraft_model AS "aircraftModel", operator_name AS "operator",
+               timestamp, latitude, longitude, altitude, velocity, heading,
+               vertical_rate AS "verticalRate", on_ground AS "onGround", distance_km AS "distanceKm"
+        FROM (
+            SELECT DISTINCT ON (icao24) *
+            FROM (
+                SELECT *, 2 * :earthRadiusKm * asin(least(1, sqrt(
+                        power(sin(radians(latitude - :lat) / 2), 2)
+                        + cos(radians(:lat)) * cos(radians(latitude)) * power(sin(radians(longitude - :lon) / 2), 2)
+                    ))) AS distance_km
+                FROM flight_states
+                WHERE (point(longitude, latitude) <@ box(point(:minLon1, :minLat), point(:maxLon1, :maxLat))
+                    OR point(longitude, latitude) <@ box(point(:minLon2, :minLat), point(:maxLon2, :maxLat)))
+                AND timestamp BETWEEN :from AND :to
+            ) candidates
+            WHERE distance_km <= :radiusKm
+            ORDER BY icao24, distance_km
+        ) closest
+        ORDER BY distance_km
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<ClosestApproach> findClosestApproaches(
+            @Param("lat") double lat,
+            @Param("lon") double lon,
+            @Param("radiusKm") double radiusKm,
+            @Param("earthRadiusKm") double earthRadiusKm,
+            @Param("minLat") double minLat,
+            @Param("maxLat") double maxLat,
+            @Param("minLon1") double minLon1,
+            @Param("maxLon1") double maxLon1,
+            @Param("minLon2") double minLon2,
+            @Param("maxLon2") double maxLon2,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("limit") int limit
+    );
+
+    /**
+     * Find flights by callsign (flight number search), one page in id order
+     */
+    Slice<FlightState> findByCallsignContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+            String callsign, long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<FlightState> streamByCallsignContainingIgnoreCaseOrderByIdAsc(String callsign);
+
+    /**
+     * Whole table in id order - one page at a time, or streamed
+     */
+    Slice<FlightState> findByIdGreaterThanOrderByIdAsc(long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("SELECT f FROM FlightState f ORDER BY f.id")
+    Stream<FlightState> streamAllOrderById();
+
+    /**
+     * Oldest position still stored (null if the table is empty)
+     */
+    @Query("SELECT MIN(f.timestamp) FROM FlightState f")
+    LocalDateTime findOldestTimestamp();
+
+    /**
+     * Newest row id (null if the table is empty) - followers read on from here
+     */
+    @Query("SELECT MAX(f.id) FROM FlightState f")
+    Long findMaxId();
+
+    /**
+     * Oldest row id written after since (null if none) - a follower catching up starts here
+     */
+    @Query("SELECT MIN(f.id) FROM FlightState f WHERE f.timestamp > :since")
+    Long findFirstIdAfter(@Param("since") LocalDateTime since);
 
     /**
      * Count flights currently in the air
@@ -92,6 +254,28 @@ public interface FlightStateRepository extends JpaRepository<FlightState, Long>
     @Query("DELETE FROM FlightState f WHERE f.timestamp < :before")
     void deleteByTimestampBefore(@Param("before") LocalDateTime before);
 
+    long countByTimestampBefore(LocalDateTime before);
+
+    /**
+     * Delete up to batchSize positions older than before, each batch in its own short transaction
+     * @return Rows deleted - fewer than batchSize means nothing older is left
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        DELETE FROM flight_states
+        WHERE id IN (SELECT id FROM flight_states WHERE timestamp < :before LIMIT :batchSize)
+        """, nativeQuery = true)
+    int deleteBatchByTimestampBefore(@Param("before") LocalDateTime before, @Param("batchSize") int batchSize);
+
+    /**
+     * Empty the table in one statement - unlike deleteAll() nothing is loaded or deleted row by row
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "TRUNCATE TABLE flight_states", nativeQuery = true)
+    void truncate();
+
     /**
      * Delete recent records for specific aircraft (prevents duplicates)
      * Only deletes records from the last few minutes
@@ -0,0 +1,103 @@
+package com.david.flight.tracker.repository;
+
+import com.david.flight.tracker.model.entity.FlightStateRollup;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface FlightStateRollupRepository extends JpaRepository<FlightStateRollup, Long> {
+
+    /**
+     * Compact raw positions in [from, to) into one point per aircraft per bucket
+     * Keeps the last position (with its aircraft metadata) in each bucket; re-running a range is a no-op
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO flight_state_rollups
+            (icao24, callsign, origin_country, registration, aircraft_type, aircraft_model, operator_name,
+             bucket_start, latitude, longitude, altitude, velocity, heading, vertical_rate, on_ground, timestamp)
+        SELECT DISTINCT ON (icao24, bucket)
+            icao24, callsign, origin_country, registration, aircraft_type, aircraft_model, operator_name,
+            bucket, latitude, longitude,
+            altitude, velocity, heading, vertical_rate, on_ground, timestamp
+        FROM (
+            SELECT *, date_bin(CAST(:bucket AS interval), timestamp, TIMESTAMP '2000-01-01') AS bucket
+            FROM flight_states
+            WHERE timestamp >= :from AND timestamp < :to
+        ) raw
+        ORDER BY icao24, bucket, timestamp DESC
+        ON CONFLICT (icao24, bucket_start) DO NOTHING
+        """, nativeQuery = true)
+    int compactRange(@Param("from") LocalDateTime from,
+                     @Param("to") LocalDateTime to,
+                     @Param("bucket") String bucket);
+
+    /**
+     * Rollup trail for an aircraft, newest first
+     */
+    @Query("""
+        SELECT r FROM FlightStateRollup r
+        WHERE r.icao24 = :icao24
+        AND r.bucketStart >= :from
+        AND r.bucketStart < :to
+        ORDER BY r.timestamp DESC
+        """)
+    List<FlightStateRollup> findTrail(
+            @Param("icao24") String icao24,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
+    /**
+     * One keyset page of a rollup trail, newest first (one rollup per aircraft per bucket)
+     */
+    @Query("""
+        SELECT r FROM FlightStateRollup r
+        WHERE r.icao24 = :icao24
+        AND r.bucketStart >= :from
+        AND r.bucketStart < :before
+        ORDER BY r.bucketStart DESC
+        """)
+    Slice<FlightStateRollup> findTrailBefore(
+            @Param("icao24") String icao24,
+            @Param("from") LocalDateTime from,
+            @Param("before") LocalDateTime before,
+            Pageable pageable
+    );
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FlightStateRepository.STREAM_FETCH_SIZE))
+    @Query("""
+        SELECT r FROM FlightStateRollup r
+        WHERE r.icao24 = :icao24
+        AND r.bucketStart >= :from
+        AND r.bucketStart < :to
+        ORDER BY r.bucketStart DESC
+        """)
+    Stream<FlightStateRollup> streamTrail(
+            @Param("icao24") String icao24,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
+    /**
+     * Delete rollups past their retention
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FlightStateRollup r WHERE r.bucketStart < :before")
+    int deleteByBucketStartBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,16 @@
+package com.david.flight.tracker.repository;
+
+import com.david.flight.tracker.model.entity.Geofence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface GeofenceRepository extends JpaRepository<Geofence, Long> {
+
+    /**
+     * Newest geofence - together with count() tells us if the set changed
+     */
+    Optional<Geofence> findTopByOrderByIdDesc();
+}
@@ -0,0 +1,59 @@
+package com.david.flight.tracker.repository;
+
+import com.david.flight.tracker.model.entity.RegionHourlyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RegionHourlyStatsRepository extends JpaRepository<RegionHourlyStats, Long> {
+
+    /**
+     * Aggregate raw positions in [from, to) into hourly per-region counts
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO region_hourly_stats
+            (hour_start, lat_cell, lon_cell, aircraft_count, airborne_count, position_count)
+        SELECT
+            date_trunc('hour', timestamp),
+            CAST(floor(latitude / 10) * 10 AS integer),
+            CAST(floor(longitude / 10) * 10 AS integer),
+            count(DISTINCT icao24),
+            count(DISTINCT icao24) FILTER (WHERE NOT on_ground),
+            count(*)
+        FROM flight_states
+        WHERE timestamp >= :from AND timestamp < :to
+        GROUP BY 1, 2, 3
+        ON CONFLICT (hour_start, lat_cell, lon_cell) DO NOTHING
+        """, nativeQuery = true)
+    int aggregateRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Same aggregation computed on the fly, for hours not yet compacted
+     * Columns: hour_start, lat_cell, lon_cell, aircraft_count, airborne_count, position_count
+     */
+    @Query(value = """
+        SELECT
+            date_trunc('hour', timestamp),
+            CAST(floor(latitude / 10) * 10 AS integer),
+            CAST(floor(longitude / 10) * 10 AS integer),
+            count(DISTINCT icao24),
+            count(DISTINCT icao24) FILTER (WHERE NOT on_ground),
+            count(*)
+        FROM flight_states
+        WHERE timestamp >= :from AND timestamp < :to
+        GROUP BY 1, 2, 3
+        """, nativeQuery = true)
+    List<Object[]> aggregateRawRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    List<RegionHourlyStats> findByHourStartGreaterThanEqualAndHourStartLessThanOrderByHourStart(
+            LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,9 @@
+package com.david.flight.tracker.repository;
+
+import com.david.flight.tracker.model.entity.RollupWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RollupWatermarkRepository extends JpaRepository<RollupWatermark, String> {
+}
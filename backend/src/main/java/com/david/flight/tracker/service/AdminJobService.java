@@ -0,0 +1,308 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.repository.FlightStateRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs admin operations (fetch, cleanup, clear) off the request thread.
+ *
+ * At most one job of each kind runs at a time; submitting another returns the running one.
+ * Deletes run in bounded batches (or a single TRUNCATE), each in its own transaction, so no
+ * request or connection is held for the length of the job. Progress is readable through
+ * getJob() and pushed to /topic/admin-jobs. Cancelling stops a job between batches.
+ *
+ * Fetches only run on the ingest leader and share OpenSkyService's guard with the scheduled
+ * fetch. Cleanup never goes past the scheduled cleanup cutoff, so raw data that has not been
+ * compacted into rollups is kept.
+ */
+@Service
+public class AdminJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminJobService.class);
+
+    @Autowired
+    private OpenSkyService openSkyService;
+
+    @Autowired
+    private FlightStateRepository flightStateRepository;
+
+    @Autowired
+    private IngestCycleService ingestCycleService;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private FlightHistoryService flightHistoryService;
+
+    @Autowired
+    private IngestLeaderService ingestLeaderService;
+
+    @Value("${admin.jobs.delete-batch-size:10000}")
+    private int deleteBatchSize;
+
+    // Finished jobs kept for the status endpoint
+    @Value("${admin.jobs.history:50}")
+    private int historySize;
+
+    public enum Kind { FETCH_NOW, CLEANUP, CLEAR_ALL }
+
+    public enum Status { RUNNING, SUCCEEDED, FAILED, CANCELLED }
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "admin-job-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Kind, AdminJob> running = new ConcurrentHashMap<>();
+
+    // Insertion ordered - oldest finished jobs are dropped first
+    private final Map<String, AdminJob> jobs = new LinkedHashMap<>();
+
+    /**
+     * Submit a job, or return the job of the same kind that is already running
+     * @param hours Retention for CLEANUP (ignored by the other kinds)
+     * @return The job, and whether it was newly started
+     * @throws IllegalArgumentException if a CLEANUP is given hours <= 0
+     * @throws IllegalStateException if a FETCH_NOW is submitted on a node that is not the ingest leader
+     */
+    public Submission submit(Kind kind, int hours) {
+        if (kind == Kind.CLEANUP && hours <= 0) {
+            throw new IllegalArgumentException("hours must be at least 1");
+        }
+        if (kind == Kind.FETCH_NOW && !ingestLeaderService.isLeader()) {
+            throw new IllegalStateException("Not the ingest leader - only the leader fetches");
+        }
+
+        AdminJob job = new AdminJob(kind);
+        AdminJob existing = running.putIfAbsent(kind, job);
+        if (existing != null) {
+            return new Submission(existing, false);
+        }
+
+        remember(job);
+        logger.info("🛠️ Admin job {} started: {}", job.id, kind);
+        publish(job);
+        executor.execute(() -> run(job, hours));
+        return new Submission(job, true);
+    }
+
+    public record Submission(AdminJob job, boolean started) {
+    }
+
+    /**
+     * @return null if the job is unknown (or too old to be kept)
+     */
+    public synchronized AdminJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Recent jobs, newest first
+     */
+    public synchronized List<Map<String, Object>> getJobs() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (AdminJob job : jobs.values()) {
+            result.add(0, job.describe());
+        }
+        return result;
+    }
+
+    /**
+     * Ask a running job to stop - it finishes the current batch first
+     * @return false if the job is unknown or already finished
+     */
+    public boolean cancel(String id) {
+        AdminJob job = getJob(id);
+        if (job == null || job.status != Status.RUNNING) {
+            return false;
+        }
+        job.cancelRequested = true;
+        logger.info("🛑 Cancel requested for admin job {} ({})", id, job.kind);
+        publish(job);
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running.values().forEach(job -> job.cancelRequested = true);
+        executor.shutdown();
+    }
+
+    // ===================================================================
+    // JOBS
+    // ===================================================================
+
+    private void run(AdminJob job, int hours) {
+        try {
+            boolean completed = switch (job.kind) {
+                case FETCH_NOW -> fetchNow(job);
+                case CLEANUP -> cleanup(job, hours);
+                case CLEAR_ALL -> clearAll(job);
+            };
+            job.finish(completed ? Status.SUCCEEDED : Status.CANCELLED, null);
+        } catch (Exception e) {
+            logger.error("❌ Admin job {} ({}) failed: {}", job.id, job.kind, e.getMessage());
+            job.finish(Status.FAILED, e.getMessage());
+        } finally {
+            // Deletes change the stored data even if they stopped part way (a fetch bumps the version itself)
+            if (job.kind != Kind.FETCH_NOW && job.processed > 0) {
+                ingestCycleService.invalidate();
+            }
+            running.remove(job.kind, job);
+            logger.info("🛠️ Admin job {} {}: {} of {} processed", job.id, job.status, job.processed, job.total);
+            publish(job);
+        }
+    }
+
+    /**
+     * One fetch - it cannot be interrupted part way, so cancel only applies before it starts
+     * @return false if cancelled
+     */
+    private boolean fetchNow(AdminJob job) {
+        if (job.cancelRequested) {
+            return false;
+        }
+        job.total = 1;
+        int count = openSkyService.fetchAndSaveFlights();
+        if (count == OpenSkyService.FETCH_IN_PROGRESS) {
+            throw new IllegalStateException("Another fetch is already running");
+        }
+        job.processed = 1;
+        job.result.put("flightsFetched", count);
+        job.result.put("totalInDatabase", flightStateRepository.count());
+        return true;
+    }
+
+    /**
+     * Delete raw positions older than the cutoff in batches
+     * The cutoff is clamped to the scheduled cleanup cutoff - nothing is deleted before it is compacted
+     */
+    private boolean cleanup(AdminJob job, int hours) {
+        LocalDateTime requested = LocalDateTime.now().minusHours(hours);
+        LocalDateTime compacted = flightHistoryService.getRawCleanupCutoff();
+        if (compacted == null) {
+            throw new IllegalStateException("Raw data has not been compacted into rollups yet");
+        }
+        LocalDateTime cutoff = requested.isBefore(compacted) ? requested : compacted;
+        job.result.put("requestedCutoffTime", requested.toString());
+        job.result.put("cutoffTime", cutoff.toString());
+        job.total = flightStateRepository.countByTimestampBefore(cutoff);
+        publish(job);
+
+        boolean completed = false;
+        while (!job.cancelRequested) {
+            int deleted = flightStateRepository.deleteBatchByTimestampBefore(cutoff, deleteBatchSize);
+            job.processed += deleted;
+            publish(job);
+            if (deleted < deleteBatchSize) {
+                completed = true;
+                break;
+            }
+        }
+
+        job.result.put("recordsDeleted", job.processed);
+        job.result.put("recordsRemaining", flightStateRepository.count());
+        return completed;
+    }
+
+    /**
+     * Empty the positions table with TRUNCATE - one statement regardless of size
+     */
+    private boolean clearAll(AdminJob job) {
+        if (job.cancelRequested) {
+            return false;
+        }
+        job.total = flightStateRepository.count();
+        publish(job);
+
+        flightStateRepository.truncate();
+        job.processed = job.total;
+        job.result.put("recordsDeleted", job.total);
+        webSocketService.broadcastNotification("Database cleared", "WARNING");
+        return true;
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private synchronized void remember(AdminJob job) {
+        jobs.put(job.id, job);
+        var oldest = jobs.values().iterator();
+        while (jobs.size() > Math.max(1, historySize) && oldest.hasNext()) {
+            if (oldest.next().status != Status.RUNNING) {
+                oldest.remove();
+            }
+        }
+    }
+
+    private void publish(AdminJob job) {
+        webSocketService.broadcastAdminJob(job.id, job.describe());
+    }
+
+    /**
+     * One submitted operation - written by its worker thread, read by status requests
+     */
+    public static class AdminJob {
+        private final String id = UUID.randomUUID().toString();
+        private final Kind kind;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final Map<String, Object> result = new ConcurrentHashMap<>();
+        private volatile Status status = Status.RUNNING;
+        private volatile long total = -1;
+        private volatile long processed = 0;
+        private volatile boolean cancelRequested = false;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        AdminJob(Kind kind) {
+            this.kind = kind;
+        }
+
+        void finish(Status finalStatus, String failure) {
+            error = failure;
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Map<String, Object> describe() {
+            Map<String, Object> job = new HashMap<>();
+            job.put("id", id);
+            job.put("kind", kind);
+            job.put("status", status);
+            job.put("total", total);
+            job.put("processed", processed);
+            job.put("progress", total > 0 ? Math.min(1.0, (double) processed / total) : null);
+            job.put("cancelRequested", cancelRequested);
+            job.put("submittedAt", submittedAt.toString());
+            job.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+            job.put("error", error);
+            job.put("result", new HashMap<>(result));
+            return job;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.model.entity.FlightState;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aircraft type, registration and operator from the OpenSky aircraft database
+ * (https://opensky-network.org/datasets/metadata/aircraftDatabase.csv), joined onto
+ * positions at ingest time.
+ *
+ * The file is polled for changes on its own thread - parsing a 500k row CSV on the shared
+ * scheduler thread would hold up the scheduled fetch. A new table is built off to the side
+ * and swapped in with a single volatile write, so lookups never wait for a reload.
+ */
+@Service
+public class AircraftMetadataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AircraftMetadataService.class);
+
+    @Value("${aircraft.metadata.path:data/aircraftDatabase.csv}")
+    private String metadataPath;
+
+    // Initial table size - the table grows if the file has more rows
+    @Value("${aircraft.metadata.expected-rows:600000}")
+    private int expectedRows;
+
+    @Value("${aircraft.metadata.check-interval:60000}")
+    private long checkIntervalMillis;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "aircraft-metadata");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile AircraftMetadataTable table = AircraftMetadataTable.empty();
+
+    private long loadedModifiedMillis = -1;
+    private long loadedSize = -1;
+    private volatile long lastLoadMillis = -1;
+
+    /**
+     * Load the file in the background at startup and whenever it changes on disk
+     * Startup does not wait for the first load
+     */
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(this::reloadIfChanged, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    synchronized void reloadIfChanged() {
+        Path path = Paths.get(metadataPath);
+        try {
+            if (!Files.isRegularFile(path)) {
+                if (loadedModifiedMillis == -1) {
+                    logger.info("✈️ No aircraft database at {} - metadata enrichment disabled", path.toAbsolutePath());
+                    loadedModifiedMillis = 0;
+                }
+                return;
+            }
+
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            long size = Files.size(path);
+            if (modified == loadedModifiedMillis && size == loadedSize) {
+                return;
+            }
+
+            long start = System.currentTimeMillis();
+            AircraftMetadataTable loaded;
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                loaded = AircraftMetadataTable.load(reader, expectedRows);
+            }
+
+            table = loaded;
+            loadedModifiedMillis = modified;
+            loadedSize = size;
+            lastLoadMillis = System.currentTimeMillis() - start;
+
+            logger.info("✈️ Aircraft database loaded: {} aircraft, {} distinct values in {} ms",
+                    loaded.size(), loaded.getDictionarySize(), lastLoadMillis);
+        } catch (Exception e) {
+            // Keep serving the previous table
+            logger.error("❌ Failed to load aircraft database {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Fill in type, model, registration and operator for each position we have metadata for
+     */
+    public void enrich(List<FlightState> flights) {
+        AircraftMetadataTable current = table;
+        if (current.size() == 0) {
+            return;
+        }
+
+        for (FlightState flight : flights) {
+            int slot = current.find(flight.getIcao24());
+            if (slot < 0) {
+                continue;
+            }
+            flight.setRegistration(fit(current.getRegistration(slot), FlightState.REGISTRATION_LENGTH));
+            flight.setAircraftType(fit(current.getTypecode(slot), FlightState.AIRCRAFT_TYPE_LENGTH));
+            flight.setAircraftModel(fit(current.getModel(slot), FlightState.AIRCRAFT_MODEL_LENGTH));
+            flight.setOperator(fit(current.getOperator(slot), FlightState.OPERATOR_LENGTH));
+        }
+    }
+
+    private static String fit(String value, int length) {
+        return value != null && value.length() > length ? value.substring(0, length) : value;
+    }
+
+    public int getAircraftCount() {
+        return table.size();
+    }
+
+    public long getLastLoadMillis() {
+        return lastLoadMillis;
+    }
+}
@@ -0,0 +1,313 @@
+package com.david.flight.tracker.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable aircraft metadata keyed by icao24.
+ *
+ * The 24-bit icao24 hex address is parsed to an int and stored in an open-addressing
+ * table of primitive arrays (linear probing, load factor <= 0.5). Text columns hold
+ * ids into a shared string dictionary, so repeated values like "A320" or an airline
+ * name are stored once. A lookup is a hash, a few array reads and no allocation.
+ */
+public class AircraftMetadataTable {
+
+    private static final int EMPTY = -1;
+
+    // Column names in the OpenSky aircraftDatabase.csv header
+    static final String COLUMN_ICAO24 = "icao24";
+    static final String COLUMN_REGISTRATION = "registration";
+    static final String COLUMN_TYPECODE = "typecode";
+    static final String COLUMN_MODEL = "model";
+    static final String COLUMN_OPERATOR = "operator";
+    static final String COLUMN_OWNER = "owner";
+
+    private final int[] keys;
+    private final int[] registration;
+    private final int[] typecode;
+    private final int[] model;
+    private final int[] operator;
+    private final String[] dictionary;
+    private final int mask;
+    private final int shift;
+    private final int size;
+
+    private AircraftMetadataTable(int[] keys, int[] registration, int[] typecode, int[] model, int[] operator,
+                                  String[] dictionary, int size) {
+        this.keys = keys;
+        this.registration = registration;
+        this.typecode = typecode;
+        this.model = model;
+        this.operator = operator;
+        this.dictionary = dictionary;
+        this.mask = keys.length - 1;
+        this.shift = shiftFor(keys.length);
+        this.size = size;
+    }
+
+    public static AircraftMetadataTable empty() {
+        return new Builder(1).build();
+    }
+
+    /**
+     * Parse the aircraft database CSV - columns are found by header name, rows without
+     * a valid icao24 are skipped
+     */
+    public static AircraftMetadataTable load(BufferedReader reader, int expectedRows) throws IOException {
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            return empty();
+        }
+
+        List<String> header = parseCsvLine(headerLine);
+        int icaoColumn = header.indexOf(COLUMN_ICAO24);
+        if (icaoColumn < 0) {
+            throw new IOException("Aircraft database has no '" + COLUMN_ICAO24 + "' column");
+        }
+        int registrationColumn = header.indexOf(COLUMN_REGISTRATION);
+        int typecodeColumn = header.indexOf(COLUMN_TYPECODE);
+        int modelColumn = header.indexOf(COLUMN_MODEL);
+        int operatorColumn = header.indexOf(COLUMN_OPERATOR);
+        int ownerColumn = header.indexOf(COLUMN_OWNER);
+
+        Builder builder = new Builder(expectedRows);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            List<String> fields = parseCsvLine(line);
+            int key = parseIcao24(field(fields, icaoColumn));
+            if (key == EMPTY) {
+                continue;
+            }
+
+            // Many private aircraft have an owner but no operator
+            String operatorName = field(fields, operatorColumn);
+            if (operatorName == null) {
+                operatorName = field(fields, ownerColumn);
+            }
+
+            builder.put(key, field(fields, registrationColumn), field(fields, typecodeColumn),
+                    field(fields, modelColumn), operatorName);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Slot of an aircraft, or -1 if unknown - pass to the getters below
+     */
+    public int find(String icao24) {
+        int key = parseIcao24(icao24);
+        if (key == EMPTY) {
+            return EMPTY;
+        }
+
+        int slot = slotFor(key, shift);
+        while (true) {
+            int stored = keys[slot];
+            if (stored == key) {
+                return slot;
+            }
+            if (stored == EMPTY) {
+                return EMPTY;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public String getRegistration(int slot) {
+        return text(registration[slot]);
+    }
+
+    public String getTypecode(int slot) {
+        return text(typecode[slot]);
+    }
+
+    public String getModel(int slot) {
+        return text(model[slot]);
+    }
+
+    public String getOperator(int slot) {
+        return text(operator[slot]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getDictionarySize() {
+        return dictionary.length;
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private String text(int id) {
+        return id == EMPTY ? null : dictionary[id];
+    }
+
+    /**
+     * Fibonacci hashing - takes the top bits, spreading the clustered icao24 blocks across the table
+     */
+    private static int slotFor(int key, int shift) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    private static int shiftFor(int capacity) {
+        return 32 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    /**
+     * 24-bit hex address to int without allocating
+     * @return -1 if not 1-6 hex digits
+     */
+    static int parseIcao24(String icao24) {
+        if (icao24 == null || icao24.isEmpty() || icao24.length() > 6) {
+            return EMPTY;
+        }
+        int value = 0;
+        for (int i = 0; i < icao24.length(); i++) {
+            int digit = Character.digit(icao24.charAt(i), 16);
+            if (digit < 0) {
+                return EMPTY;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Split one CSV line, honouring double-quoted fields with "" escapes
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    /**
+     * Collects rows into the open-addressing arrays, doubling them when half full.
+     * A repeated icao24 overwrites the earlier row.
+     */
+    static class Builder {
+        private int[] keys;
+        private int[] registration;
+        private int[] typecode;
+        private int[] model;
+        private int[] operator;
+        private final Map<String, Integer> dictionaryIds = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private int size;
+
+        Builder(int expectedRows) {
+            allocate(Integer.highestOneBit(Math.max(2, expectedRows) * 2 - 1) << 1);
+        }
+
+        void put(int key, String registrationValue, String typecodeValue, String modelValue, String operatorValue) {
+            put(key, intern(registrationValue), intern(typecodeValue), intern(modelValue), intern(operatorValue));
+        }
+
+        int size() {
+            return size;
+        }
+
+        AircraftMetadataTable build() {
+            return new AircraftMetadataTable(keys, registration, typecode, model, operator,
+                    dictionary.toArray(new String[0]), size);
+        }
+
+        private void put(int key, int registrationId, int typecodeId, int modelId, int operatorId) {
+            if (size + 1 > keys.length / 2) {
+                grow();
+            }
+
+            int mask = keys.length - 1;
+            int slot = slotFor(key, shiftFor(keys.length));
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                size++;
+            }
+
+            keys[slot] = key;
+            registration[slot] = registrationId;
+            typecode[slot] = typecodeId;
+            model[slot] = modelId;
+            operator[slot] = operatorId;
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            registration = new int[capacity];
+            typecode = new int[capacity];
+            model = new int[capacity];
+            operator = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldRegistration = registration;
+            int[] oldTypecode = typecode;
+            int[] oldModel = model;
+            int[] oldOperator = operator;
+
+            allocate(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldRegistration[i], oldTypecode[i], oldModel[i], oldOperator[i]);
+                }
+            }
+        }
+
+        private int intern(String value) {
+            if (value == null) {
+                return EMPTY;
+            }
+            return dictionaryIds.computeIfAbsent(value, v -> {
+                dictionary.add(v);
+                return dictionary.size() - 1;
+            });
+        }
+    }
+}
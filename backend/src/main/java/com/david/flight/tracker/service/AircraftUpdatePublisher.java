@@ -0,0 +1,46 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.model.entity.FlightState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Pushes every ingested position to /topic/aircraft, one message per aircraft.
+ *
+ * Messages are conflated per aircraft, so a client that falls behind only gets the
+ * latest position of each aircraft instead of a backlog of stale ones.
+ */
+@Service
+public class AircraftUpdatePublisher implements FlightIngestListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AircraftUpdatePublisher.class);
+
+    @Value("${websocket.aircraft-updates.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Override
+    public void onFlightsIngested(List<FlightState> flights) {
+        if (!enabled) {
+            return;
+        }
+        for (FlightState flight : flights) {
+            webSocketService.broadcastAircraftUpdate(flight.getIcao24(), flight);
+        }
+        logger.debug("✈️ Aircraft updates broadcast: {}", flights.size());
+    }
+
+    /**
+     * The leader has already pushed these positions to every client through the broker
+     */
+    @Override
+    public void onFlightsReplicated(List<FlightState> flights) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.dto.OpenSkyResponse;
+
+/**
+ * Where OpenSkyService gets its /states/all snapshots from.
+ *
+ * Selected with flights.source: opensky (live API, default), replay (recorded
+ * captures from disk) or synthetic (generated aircraft for load tests).
+ */
+public interface FlightDataSource {
+
+    /**
+     * One snapshot of all aircraft states in the OpenSky /states/all format
+     * @return null if no data is available right now
+     */
+    OpenSkyResponse fetchStates() throws Exception;
+
+    /**
+     * Short name for logs
+     */
+    String getName();
+}
@@ -0,0 +1,300 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.dto.FlightEvent;
+import com.david.flight.tracker.model.entity.FlightState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incremental stream processor over the ingest feed.
+ *
+ * Keeps a small rolling state per aircraft and compares each new position against it
+ * to detect takeoffs, landings, steep descents and implausible velocity/heading jumps.
+ * Also maintains live airborne counts per origin country and per 10° region.
+ *
+ * Work per cycle is proportional to the aircraft that reported a new position -
+ * nothing is re-read from the database.
+ */
+@Service
+public class FlightEventProcessor implements FlightIngestListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightEventProcessor.class);
+
+    // Size of a region cell in degrees
+    public static final int REGION_SIZE = 10;
+
+    @Value("${flights.events.steep-descent-rate:-15}")
+    private double steepDescentRate;
+
+    @Value("${flights.events.velocity-jump:100}")
+    private double velocityJump;
+
+    // Smallest heading change worth judging - below it sensor noise dominates
+    @Value("${flights.events.heading-jump:30}")
+    private double headingJump;
+
+    // Turn rate (deg/s) no aircraft should exceed - twice a standard-rate turn
+    @Value("${flights.events.max-turn-rate:6}")
+    private double maxTurnRate;
+
+    @Value("${flights.events.anomaly-window-seconds:300}")
+    private long anomalyWindowSeconds;
+
+    @Value("${flights.events.stale-seconds:900}")
+    private long staleSeconds;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    private final Map<String, AircraftTrack> tracks = new ConcurrentHashMap<>();
+    private final Map<String, Integer> countryCounts = new ConcurrentHashMap<>();
+    private final Map<String, Integer> regionCounts = new ConcurrentHashMap<>();
+
+    // Aircraft seen in each cycle, oldest first - lets expiry skip aircraft seen since
+    private final Deque<SeenBatch> seenBatches = new ArrayDeque<>();
+    private long cycle = 0;
+
+    private static class AircraftTrack {
+        LocalDateTime timestamp;
+        boolean onGround;
+        Double velocity;
+        Double heading;
+        Double verticalRate;
+        long lastSeenCycle;
+
+        // Where this aircraft is currently counted (null when on the ground)
+        String countedCountry;
+        String countedRegion;
+    }
+
+    private record SeenBatch(long cycle, long seenAtMillis, List<String> icao24s) {
+    }
+
+    @Override
+    public void onFlightsIngested(List<FlightState> flights) {
+        process(flights, true);
+    }
+
+    /**
+     * Keep tracks and counts in step on a follower without broadcasting the leader's events again
+     */
+    @Override
+    public void onFlightsReplicated(List<FlightState> flights) {
+        process(flights, false);
+    }
+
+    private synchronized void process(List<FlightState> flights, boolean broadcast) {
+        cycle++;
+        List<FlightEvent> events = new ArrayList<>();
+        List<String> seen = new ArrayList<>();
+        boolean countsChanged = false;
+
+        for (FlightState flight : flights) {
+            AircraftTrack track = tracks.get(flight.getIcao24());
+
+            if (track == null) {
+                track = new AircraftTrack();
+                tracks.put(flight.getIcao24(), track);
+            } else if (!flight.getTimestamp().isAfter(track.timestamp)) {
+                // No new contact since last cycle - nothing to do
+                continue;
+            } else {
+                detectEvents(track, flight, events);
+            }
+
+            track.timestamp = flight.getTimestamp();
+            track.onGround = Boolean.TRUE.equals(flight.getOnGround());
+            track.velocity = flight.getVelocity();
+            track.heading = flight.getHeading();
+            track.verticalRate = flight.getVerticalRate();
+            track.lastSeenCycle = cycle;
+            seen.add(flight.getIcao24());
+
+            countsChanged |= updateCounts(track, flight);
+        }
+
+        seenBatches.addLast(new SeenBatch(cycle, System.currentTimeMillis(), seen));
+        countsChanged |= expireStaleAircraft();
+
+        if (!broadcast) {
+            return;
+        }
+        if (!events.isEmpty()) {
+            webSocketService.broadcastFlightEvents(events);
+        }
+        if (countsChanged) {
+            webSocketService.broadcastAirspaceCounts(getCountryCounts(), getRegionCounts());
+        }
+
+        logger.info("🛰️ Event processor: {} changed aircraft | {} events | {} tracked",
+                seen.size(), events.size(), tracks.size());
+    }
+
+    // ===================================================================
+    // DETECTION
+    // ===================================================================
+
+    private void detectEvents(AircraftTrack previous, FlightState flight, List<FlightEvent> events) {
+        boolean onGround = Boolean.TRUE.equals(flight.getOnGround());
+        long seconds = Duration.between(previous.timestamp, flight.getTimestamp()).getSeconds();
+
+        if (previous.onGround && !onGround) {
+            events.add(event(FlightEvent.Type.TAKEOFF, flight, "Left the ground"));
+        } else if (!previous.onGround && onGround) {
+            events.add(event(FlightEvent.Type.LANDING, flight, "Touched down"));
+        }
+
+        // Only report the start of a steep descent, not every cycle of it
+        Double verticalRate = flight.getVerticalRate();
+        if (!onGround && verticalRate != null && verticalRate <= steepDescentRate
+                && (previous.verticalRate == null || previous.verticalRate > steepDescentRate)) {
+            events.add(event(FlightEvent.Type.STEEP_DESCENT, flight,
+                    String.format("Vertical rate %.1f m/s", verticalRate)));
+        }
+
+        if (onGround || previous.onGround || seconds <= 0 || seconds > anomalyWindowSeconds) {
+            return;
+        }
+
+        if (previous.velocity != null && flight.getVelocity() != null) {
+            double change = Math.abs(flight.getVelocity() - previous.velocity);
+            if (change >= velocityJump) {
+                events.add(event(FlightEvent.Type.VELOCITY_JUMP, flight,
+                        String.format("Speed changed %.0f m/s in %ds", change, seconds)));
+            }
+        }
+
+        if (previous.heading != null && flight.getHeading() != null) {
+            double change = Math.abs(flight.getHeading() - previous.heading) % 360;
+            if (change > 180) {
+                change = 360 - change;
+            }
+            // Holding patterns and procedure turns reverse course too - only a turn faster than any aircraft flies is a jump
+            if (change >= headingJump && change / seconds > maxTurnRate) {
+                events.add(event(FlightEvent.Type.HEADING_JUMP, flight,
+                        String.format("Heading changed %.0f° in %ds", change, seconds)));
+            }
+        }
+    }
+
+    private FlightEvent event(FlightEvent.Type type, FlightState flight, String detail) {
+        return new FlightEvent(type, flight.getIcao24(), flight.getCallsign(),
+                flight.getLatitude(), flight.getLongitude(), flight.getAltitude(),
+                detail, flight.getTimestamp());
+    }
+
+    // ===================================================================
+    // AIRSPACE COUNTS
+    // ===================================================================
+
+    /**
+     * Move the aircraft between country/region buckets if needed
+     * @return true if any count changed
+     */
+    private boolean updateCounts(AircraftTrack track, FlightState flight) {
+        String country = null;
+        String region = null;
+        if (!track.onGround) {
+            country = flight.getOriginCountry() != null ? flight.getOriginCountry() : "Unknown";
+            region = regionKey(flight.getLatitude(), flight.getLongitude());
+        }
+
+        boolean changed = false;
+        if (!Objects.equals(country, track.countedCountry)) {
+            decrement(countryCounts, track.countedCountry);
+            increment(countryCounts, country);
+            track.countedCountry = country;
+            changed = true;
+        }
+        if (!Objects.equals(region, track.countedRegion)) {
+            decrement(regionCounts, track.countedRegion);
+            increment(regionCounts, region);
+            track.countedRegion = region;
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Drop aircraft that have not reported within the stale window
+     * Only looks at the batches that just aged out
+     */
+    private boolean expireStaleAircraft() {
+        long cutoff = System.currentTimeMillis() - staleSeconds * 1000;
+        boolean changed = false;
+
+        while (!seenBatches.isEmpty() && seenBatches.peekFirst().seenAtMillis() < cutoff) {
+            SeenBatch batch = seenBatches.pollFirst();
+            for (String icao24 : batch.icao24s()) {
+                AircraftTrack track = tracks.get(icao24);
+                // Seen again in a later cycle - still live
+                if (track == null || track.lastSeenCycle != batch.cycle()) {
+                    continue;
+                }
+                decrement(countryCounts, track.countedCountry);
+                decrement(regionCounts, track.countedRegion);
+                changed |= track.countedCountry != null;
+                tracks.remove(icao24);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Region key for a 10° cell, named after its south-west corner, e.g. "N50W010"
+     */
+    public static String regionKey(double latitude, double longitude) {
+        int latCell = (int) Math.floor(latitude / REGION_SIZE) * REGION_SIZE;
+        int lonCell = (int) Math.floor(longitude / REGION_SIZE) * REGION_SIZE;
+        return regionKey(latCell, lonCell);
+    }
+
+    public static String regionKey(int latCell, int lonCell) {
+        return String.format("%s%02d%s%03d",
+                latCell < 0 ? "S" : "N", Math.abs(latCell),
+                lonCell < 0 ? "W" : "E", Math.abs(lonCell));
+    }
+
+    public Map<String, Integer> getCountryCounts() {
+        return new TreeMap<>(countryCounts);
+    }
+
+    public Map<String, Integer> getRegionCounts() {
+        return new TreeMap<>(regionCounts);
+    }
+
+    public int getTrackedAircraft() {
+        return tracks.size();
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private void increment(Map<String, Integer> counts, String key) {
+        if (key != null) {
+            counts.merge(key, 1, Integer::sum);
+        }
+    }
+
+    private void decrement(Map<String, Integer> counts, String key) {
+        if (key != null) {
+            // Returning null removes the entry once it reaches zero
+            counts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.model.entity.FlightState;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams flight history out of the database without loading it into memory.
+ *
+ * Rows are read through a server-side cursor (Postgres only uses one inside a
+ * transaction with a fetch size) and written to the output as they arrive,
+ * so heap use stays flat no matter how many rows are exported.
+ *
+ * The same approach backs the NDJSON mode of the flight listing endpoints.
+ */
+@Service
+public class FlightExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightExportService.class);
+
+    private static final String CSV_HEADER =
+            "id,icao24,callsign,origin_country,timestamp,latitude,longitude,altitude,velocity,heading,vertical_rate,on_ground,"
+            + "registration,aircraft_type,aircraft_model,operator\n";
+
+    // Streamed entities are detached in batches so the persistence context stays small
+    private static final int CLEAR_EVERY_ROWS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public FlightExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                               JsonMapper jsonMapper, @Value("${export.fetch-size:5000}") int fetchSize) {
+        this.jsonMapper = jsonMapper;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Write all positions in [from, to) as gzipped CSV
+     * @return Number of rows written
+     */
+    public long exportCsv(LocalDateTime from, LocalDateTime to, OutputStream out, boolean compress) throws IOException {
+        long start = System.currentTimeMillis();
+        OutputStream target = compress ? new GZIPOutputStream(out, 64 * 1024) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+
+        writer.write(CSV_HEADER);
+        long[] rows = {0};
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query("""
+                    SELECT id, icao24, callsign, origin_country, timestamp, latitude, longitude,
+                           altitude, velocity, heading, vertical_rate, on_ground,
+                           registration, aircraft_type, aircraft_model, operator_name
+                    FROM flight_states
+                    WHERE timestamp >= ? AND timestamp < ?
+                    ORDER BY timestamp
+                    """, rs -> {
+                try {
+                    writeCsvRow(rs, writer);
+                } catch (IOException e) {
+                    // Client went away - abort the query
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }, from, to));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzip) {
+            gzip.finish();
+        }
+
+        logger.info("📦 Exported {} rows ({} to {}) in {} ms", rows[0], from, to, System.currentTimeMillis() - start);
+        return rows[0];
+    }
+
+    /**
+     * Stream flights as NDJSON (one JSON object per line)
+     * Queries run one after another in a single read-only transaction; the first line is flushed immediately
+     */
+    public ResponseEntity<StreamingResponseBody> ndjson(List<Supplier<Stream<FlightState>>> queries) {
+        StreamingResponseBody body = out -> writeNdjson(queries, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    public ResponseEntity<StreamingResponseBody> ndjson(Supplier<Stream<FlightState>> query) {
+        return ndjson(List.of(query));
+    }
+
+    long writeNdjson(List<Supplier<Stream<FlightState>>> queries, OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        long[] rows = {0};
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Supplier<Stream<FlightState>> query : queries) {
+                    try (Stream<FlightState> flights = query.get()) {
+                        flights.forEach(flight -> {
+                            try {
+                                buffered.write(jsonMapper.writeValueAsBytes(flight));
+                                buffered.write('\n');
+                                if (++rows[0] == 1) {
+                                    buffered.flush();
+                                }
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            if (rows[0] % CLEAR_EVERY_ROWS == 0) {
+                                entityManager.clear();
+                            }
+                        });
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        buffered.flush();
+        return rows[0];
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private void writeCsvRow(ResultSet rs, Writer writer) throws SQLException, IOException {
+        writer.write(Long.toString(rs.getLong(1)));
+        writer.write(',');
+        writer.write(escape(rs.getString(2)));
+        writer.write(',');
+        writer.write(escape(rs.getString(3)));
+        writer.write(',');
+        writer.write(escape(rs.getString(4)));
+        writer.write(',');
+        writer.write(rs.getObject(5, LocalDateTime.class).toString());
+        for (int column = 6; column <= 11; column++) {
+            writer.write(',');
+            double value = rs.getDouble(column);
+            if (!rs.wasNull()) {
+                writer.write(Double.toString(value));
+            }
+        }
+        writer.write(',');
+        writer.write(rs.getBoolean(12) ? "true" : "false");
+        for (int column = 13; column <= 16; column++) {
+            writer.write(',');
+            writer.write(escape(rs.getString(column)));
+        }
+        writer.write('\n');
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,311 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.dto.FlightPage;
+import com.david.flight.tracker.model.entity.FlightState;
+import com.david.flight.tracker.model.entity.FlightStateRollup;
+import com.david.flight.tracker.model.entity.RegionHourlyStats;
+import com.david.flight.tracker.model.entity.RollupWatermark;
+import com.david.flight.tracker.repository.FlightStateRepository;
+import com.david.flight.tracker.repository.FlightStateRollupRepository;
+import com.david.flight.tracker.repository.RegionHourlyStatsRepository;
+import com.david.flight.tracker.repository.RollupWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Tiered flight history.
+ *
+ * - Raw positions: flight_states, kept for scheduler.cleanup.retention-hours (24h)
+ * - 5-minute rollups: one point per aircraft per bucket, kept for history.rollup.retention-days (30d)
+ * - Hourly region aggregates: aircraft counts per 10° region, kept indefinitely
+ *
+ * A background job compacts raw data into both rollup tiers incrementally, tracked by
+ * watermarks, and trail / stats queries pick the tier that covers the requested range.
+ */
+@Service
+public class FlightHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightHistoryService.class);
+
+    static final String ROLLUP_WATERMARK = "rollup_5min";
+    static final String HOURLY_WATERMARK = "region_hourly";
+
+    // Upper bound for the first trail page - any real timestamp is before it
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Value("${scheduler.cleanup.retention-hours:24}")
+    private long rawRetentionHours;
+
+    @Value("${history.rollup.bucket-minutes:5}")
+    private long bucketMinutes;
+
+    @Value("${history.rollup.retention-days:30}")
+    private long rollupRetentionDays;
+
+    // Wait this long after a bucket closes before compacting it - last_contact can lag
+    @Value("${history.rollup.grace-minutes:10}")
+    private long graceMinutes;
+
+    // Most raw data compacted per run, so catching up never runs one huge statement
+    @Value("${history.rollup.max-hours-per-run:6}")
+    private long maxHoursPerRun;
+
+    @Autowired
+    private FlightStateRepository flightStateRepository;
+
+    @Autowired
+    private FlightStateRollupRepository rollupRepository;
+
+    @Autowired
+    private RegionHourlyStatsRepository regionHourlyStatsRepository;
+
+    @Autowired
+    private RollupWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private IngestLeaderService ingestLeaderService;
+
+    // ===================================================================
+    // COMPACTION
+    // ===================================================================
+
+    /**
+     * Compact raw positions into rollups every 5 minutes
+     */
+    @Scheduled(fixedDelayString = "${history.rollup.interval:300000}", initialDelayString = "${history.rollup.initial-delay:60000}")
+    public void compact() {
+        if (!ingestLeaderService.isLeader()) {
+            return;
+        }
+
+        try {
+            int rollups = compactFiveMinute();
+            int aggregates = compactHourly();
+            int expired = rollupRepository.deleteByBucketStartBefore(
+                    LocalDateTime.now().minusDays(rollupRetentionDays));
+
+            if (rollups > 0 || aggregates > 0 || expired > 0) {
+                logger.info("🗜️ History compaction: {} rollup points | {} region-hours | {} expired rollups",
+                        rollups, aggregates, expired);
+            }
+        } catch (Exception e) {
+            logger.error("❌ History compaction failed: {}", e.getMessage());
+        }
+    }
+
+    private int compactFiveMinute() {
+        Duration bucket = Duration.ofMinutes(bucketMinutes);
+        LocalDateTime limit = floor(LocalDateTime.now().minusMinutes(graceMinutes), bucket);
+        LocalDateTime from = watermark(ROLLUP_WATERMARK, bucket);
+        if (!from.isBefore(limit)) {
+            return 0;
+        }
+
+        LocalDateTime to = min(limit, from.plusHours(maxHoursPerRun));
+        int inserted = rollupRepository.compactRange(from, to, bucketMinutes + " minutes");
+        watermarkRepository.save(new RollupWatermark(ROLLUP_WATERMARK, to));
+        return inserted;
+    }
+
+    private int compactHourly() {
+        Duration hour = Duration.ofHours(1);
+        LocalDateTime limit = floor(LocalDateTime.now().minusMinutes(graceMinutes), hour);
+        LocalDateTime from = watermark(HOURLY_WATERMARK, hour);
+        if (!from.isBefore(limit)) {
+            return 0;
+        }
+
+        LocalDateTime to = min(limit, from.plusHours(maxHoursPerRun));
+        int inserted = regionHourlyStatsRepository.aggregateRange(from, to);
+        watermarkRepository.save(new RollupWatermark(HOURLY_WATERMARK, to));
+        return inserted;
+    }
+
+    /**
+     * Oldest raw timestamp that may be deleted - raw data is only dropped once both tiers have it
+     */
+    public LocalDateTime getRawCleanupCutoff() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(rawRetentionHours);
+        for (String name : List.of(ROLLUP_WATERMARK, HOURLY_WATERMARK)) {
+            LocalDateTime compacted = watermarkRepository.findById(name)
+                    .map(RollupWatermark::getWatermark)
+                    .orElse(null);
+            if (compacted == null) {
+                // Never compacted - keep everything until the first run
+                return null;
+            }
+            cutoff = min(cutoff, compacted);
+        }
+        return cutoff;
+    }
+
+    // ===================================================================
+    // TIER ROUTING
+    // ===================================================================
+
+    /**
+     * Trail for an aircraft since a point in time, newest first
+     * Recent part comes from raw positions, anything older from the 5-minute rollups
+     */
+    public List<FlightState> getTrail(String icao24, LocalDateTime since) {
+        LocalDateTime rawStart = LocalDateTime.now().minusHours(rawRetentionHours);
+        if (!since.isBefore(rawStart)) {
+            return flightStateRepository.findFlightTrail(icao24, since);
+        }
+
+        List<FlightState> trail = new ArrayList<>(flightStateRepository.findFlightTrail(icao24, rawStart));
+        rollupRepository.findTrail(icao24, since, rawStart)
+                .forEach(rollup -> trail.add(rollup.toFlightState()));
+        return trail;
+    }
+
+    /**
+     * One page of a trail, newest first
+     * Cursors are "raw~<timestamp>~<id>" while paging raw positions, then "rollup~<bucketStart>"
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public FlightPage getTrailPage(String icao24, LocalDateTime since, String cursor, int limit) {
+        LocalDateTime rawStart = LocalDateTime.now().minusHours(rawRetentionHours);
+        TrailCursor position = TrailCursor.parse(cursor);
+        List<FlightState> items = new ArrayList<>();
+
+        LocalDateTime rollupBefore = position.timestamp();
+        if (!position.rollup()) {
+            Slice<FlightState> raw = flightStateRepository.findFlightTrailBefore(
+                    icao24, max(since, rawStart), position.timestamp(), position.id(), PageRequest.of(0, limit));
+            items.addAll(raw.getContent());
+
+            if (raw.hasNext()) {
+                FlightState last = items.get(items.size() - 1);
+                return new FlightPage(items, "raw~" + last.getTimestamp() + "~" + last.getId());
+            }
+            if (!since.isBefore(rawStart)) {
+                return new FlightPage(items, null);
+            }
+            // Raw tier exhausted - carry on in the rollups
+            rollupBefore = rawStart;
+            if (items.size() >= limit) {
+                return new FlightPage(items, "rollup~" + rollupBefore);
+            }
+        }
+
+        Slice<FlightStateRollup> rollups = rollupRepository.findTrailBefore(
+                icao24, since, rollupBefore, PageRequest.of(0, limit - items.size()));
+        rollups.forEach(rollup -> items.add(rollup.toFlightState()));
+
+        String next = null;
+        if (rollups.hasNext()) {
+            List<FlightStateRollup> content = rollups.getContent();
+            next = "rollup~" + content.get(content.size() - 1).getBucketStart();
+        }
+        return new FlightPage(items, next);
+    }
+
+    /**
+     * Trail queries for streaming, newest first - raw positions, then rollups if the range needs them
+     * The streams must be consumed inside a transaction
+     */
+    public List<Supplier<Stream<FlightState>>> streamTrail(String icao24, LocalDateTime since) {
+        LocalDateTime rawStart = LocalDateTime.now().minusHours(rawRetentionHours);
+        if (!since.isBefore(rawStart)) {
+            return List.of(() -> flightStateRepository.streamFlightTrail(icao24, since));
+        }
+        return List.of(
+                () -> flightStateRepository.streamFlightTrail(icao24, rawStart),
+                () -> rollupRepository.streamTrail(icao24, since, rawStart).map(FlightStateRollup::toFlightState));
+    }
+
+    /**
+     * Hourly per-region counts for [from, to)
+     * Compacted hours come from region_hourly_stats, the rest is aggregated from raw data
+     */
+    public List<RegionHourlyStats> getRegionHourlyStats(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime compacted = watermarkRepository.findById(HOURLY_WATERMARK)
+                .map(RollupWatermark::getWatermark)
+                .orElse(from);
+        LocalDateTime split = min(max(compacted, from), to);
+
+        List<RegionHourlyStats> stats = new ArrayList<>(
+                regionHourlyStatsRepository.findByHourStartGreaterThanEqualAndHourStartLessThanOrderByHourStart(from, split));
+
+        if (split.isBefore(to)) {
+            for (Object[] row : regionHourlyStatsRepository.aggregateRawRange(split, to)) {
+                stats.add(new RegionHourlyStats(null, toLocalDateTime(row[0]),
+                        ((Number) row[1]).intValue(), ((Number) row[2]).intValue(),
+                        ((Number) row[3]).longValue(), ((Number) row[4]).longValue(), ((Number) row[5]).longValue()));
+            }
+        }
+        return stats;
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private LocalDateTime watermark(String name, Duration step) {
+        return watermarkRepository.findById(name)
+                .map(RollupWatermark::getWatermark)
+                .orElseGet(() -> {
+                    // First run - start from the oldest raw data we still have
+                    LocalDateTime oldest = flightStateRepository.findOldestTimestamp();
+                    return floor(oldest != null ? oldest : LocalDateTime.now(), step);
+                });
+    }
+
+    private record TrailCursor(boolean rollup, LocalDateTime timestamp, long id) {
+
+        static TrailCursor parse(String cursor) {
+            if (cursor == null) {
+                return new TrailCursor(false, END_OF_TIME, Long.MAX_VALUE);
+            }
+            String[] parts = cursor.split("~");
+            try {
+                if (parts.length == 3 && parts[0].equals("raw")) {
+                    return new TrailCursor(false, LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+                }
+                if (parts.length == 2 && parts[0].equals("rollup")) {
+                    return new TrailCursor(true, LocalDateTime.parse(parts[1]), 0);
+                }
+            } catch (RuntimeException e) {
+                // Fall through to the error below
+            }
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    static LocalDateTime floor(LocalDateTime time, Duration step) {
+        LocalDateTime midnight = time.truncatedTo(ChronoUnit.DAYS);
+        long seconds = Duration.between(midnight, time).getSeconds();
+        return midnight.plusSeconds(seconds - seconds % step.getSeconds());
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,21 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.model.entity.FlightState;
+
+import java.util.List;
+
+/**
+ * Called after each successful ingest with the flights that were just saved
+ */
+public interface FlightIngestListener {
+
+    void onFlightsIngested(List<FlightState> flights);
+
+    /**
+     * Called on follower nodes with the positions another node ingested (read back from the database)
+     * Update local state only - the leader has already broadcast anything clients need
+     */
+    default void onFlightsReplicated(List<FlightState> flights) {
+        onFlightsIngested(flights);
+    }
+}
@@ -24,20 +24,42 @@ public class FlightSchedulerService {
     @Autowired
     private WebSocketService webSocketService;  // Add this
 
+    @Autowired
+    private IngestCycleService ingestCycleService;
+
+    @Autowired
+    private IngestLeaderService ingestLeaderService;
+
+    @Autowired
+    private FlightHistoryService flightHistoryService;
+
     private int successfulFetches = 0;
     private int failedFetches = 0;
     private LocalDateTime lastSuccessfulFetch = null;
 
     /**
-     * Fetch flights every 3 minutes
+     * Fetch flights every 3 minutes (scheduler.fetch.delay)
      */
-    @Scheduled(fixedDelay = 180000, initialDelay = 10000)
+    @Scheduled(fixedDelayString = "${scheduler.fetch.delay:180000}",
+            initialDelayString = "${scheduler.fetch.initial-delay:10000}")
     public void scheduledFlightFetch() {
+        // In a cluster only one node fetches - the rest serve what it writes
+        if (!ingestLeaderService.isLeader()) {
+            logger.debug("Not the ingest leader - skipping scheduled fetch");
+            return;
+        }
+
         logger.info("=== Scheduled flight fetch started ===");
 
         try {
             int flightCount = openSkyService.fetchAndSaveFlights();
 
+            if (flightCount == OpenSkyService.FETCH_IN_PROGRESS) {
+                // A manual fetch is still running - it stands in for this cycle
+                logger.info("Another fetch is still running - skipping scheduled fetch");
+                return;
+            }
+
             if (flightCount > 0) {
                 successfulFetches++;
                 lastSuccessfulFetch = LocalDateTime.now();
@@ -77,16 +99,26 @@ public class FlightSchedulerService {
 
     /**
      * Clean up old flight data every hour
+     * Raw positions older than scheduler.cleanup.retention-hours are dropped once compacted into rollups
      */
     @Scheduled(cron = "0 0 * * * *")
     public void cleanupOldFlights() {
+        if (!ingestLeaderService.isLeader()) {
+            return;
+        }
+
         logger.info("=== Starting cleanup of old flight data ===");
 
         try {
-            LocalDateTime cutoff = LocalDateTime.now().minusHours(24);
+            LocalDateTime cutoff = flightHistoryService.getRawCleanupCutoff();
+            if (cutoff == null) {
+                logger.info("Skipping cleanup - raw data has not been compacted into rollups yet");
+                return;
+            }
             long countBefore = flightStateRepository.count();
 
             flightStateRepository.deleteByTimestampBefore(cutoff);
+            ingestCycleService.invalidate();
 
             long countAfter = flightStateRepository.count();
             long deleted = countBefore - countAfter;
@@ -111,6 +143,10 @@ public class FlightSchedulerService {
      */
     @Scheduled(fixedDelay = 600000)
     public void logStatistics() {
+        if (!ingestLeaderService.isLeader()) {
+            return;
+        }
+
         long totalFlights = flightStateRepository.count();
         LocalDateTime fiveMinAgo = LocalDateTime.now().minusMinutes(5);
         long activeFlights = flightStateRepository.countByOnGroundFalseAndTimestampAfter(fiveMinAgo);
@@ -0,0 +1,298 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.model.entity.FlightState;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Turns OpenSky state vectors into FlightState entities.
+ *
+ * Large batches are split across a dedicated fork-join pool; every record is written to
+ * its own index so the output keeps the input order. Bad records are counted, not
+ * thrown or logged one by one, and the epoch -> local time conversion reuses the zone
+ * offset until the next DST transition instead of resolving the zone per record.
+ *
+ * OpenSky array format:
+ * [0]  icao24          - string
+ * [1]  callsign        - string
+ * [2]  origin_country  - string
+ * [3]  time_position   - int (unix timestamp)
+ * [4]  last_contact    - int (unix timestamp)
+ * [5]  longitude       - double
+ * [6]  latitude        - double
+ * [7]  baro_altitude   - double (meters)
+ * [8]  on_ground       - boolean
+ * [9]  velocity        - double (m/s)
+ * [10] true_track      - double (heading in degrees)
+ * [11] vertical_rate   - double (m/s)
+ */
+@Component
+public class FlightStateParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightStateParser.class);
+
+    // Records per fork-join leaf task
+    private static final int CHUNK_SIZE = 1024;
+
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    // Marker for records that are valid but not transmitting a position
+    private static final FlightState NO_POSITION = new FlightState();
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final ZoneRules zoneRules;
+
+    // Offset valid for [start, end) in epoch seconds - replaced when a record falls outside it
+    private volatile OffsetWindow offsetWindow;
+
+    private final LongAdder parsed = new LongAdder();
+    private final LongAdder skippedNoPosition = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private record OffsetWindow(long start, long end, ZoneOffset offset) {
+    }
+
+    @Autowired
+    public FlightStateParser(@Value("${ingest.parse.parallelism:0}") int parallelism,
+                             @Value("${ingest.parse.parallel-threshold:5000}") int parallelThreshold) {
+        this(parallelism, parallelThreshold, ZoneId.systemDefault());
+    }
+
+    /**
+     * @param parallelism Worker threads (0 = one per core)
+     * @param parallelThreshold Batches smaller than this are parsed on the calling thread
+     */
+    FlightStateParser(int parallelism, int parallelThreshold, ZoneId zone) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads);
+        this.parallelThreshold = parallelThreshold;
+        this.zoneRules = zone.getRules();
+        this.offsetWindow = windowFor(Instant.now().getEpochSecond());
+        logger.info("🧮 Flight state parser: {} threads, parallel above {} records", threads, parallelThreshold);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Parse a batch, keeping input order and dropping records without a usable position
+     */
+    public List<FlightState> parse(List<List<Object>> states) {
+        int size = states.size();
+        FlightState[] results = new FlightState[size];
+
+        if (size < parallelThreshold || pool.getParallelism() == 1) {
+            parseRange(states, results, 0, size);
+        } else {
+            pool.invoke(new ParseTask(states, results, 0, size));
+        }
+
+        List<FlightState> flights = new ArrayList<>(size);
+        for (FlightState flight : results) {
+            if (flight != null) {
+                flights.add(flight);
+            }
+        }
+        return flights;
+    }
+
+    public long getParsedCount() {
+        return parsed.sum();
+    }
+
+    public long getSkippedNoPositionCount() {
+        return skippedNoPosition.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    // ===================================================================
+    // PARSING
+    // ===================================================================
+
+    private class ParseTask extends RecursiveAction {
+        private final List<List<Object>> states;
+        private final FlightState[] results;
+        private final int from;
+        private final int to;
+
+        ParseTask(List<List<Object>> states, FlightState[] results, int from, int to) {
+            this.states = states;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                parseRange(states, results, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParseTask(states, results, from, middle), new ParseTask(states, results, middle, to));
+        }
+    }
+
+    private void parseRange(List<List<Object>> states, FlightState[] results, int from, int to) {
+        int ok = 0;
+        int noPosition = 0;
+        int bad = 0;
+
+        for (int i = from; i < to; i++) {
+            FlightState flight;
+            try {
+                flight = parseState(states.get(i));
+            } catch (RuntimeException e) {
+                // Anything the checks in parseState missed - counted as rejected, never rethrown
+                flight = null;
+            }
+
+            if (flight == null) {
+                bad++;
+            } else if (flight == NO_POSITION) {
+                noPosition++;
+            } else {
+                results[i] = flight;
+                ok++;
+            }
+        }
+
+        parsed.add(ok);
+        skippedNoPosition.add(noPosition);
+        rejected.add(bad);
+    }
+
+    /**
+     * @return the parsed flight, NO_POSITION, or null if the record is malformed
+     */
+    private FlightState parseState(List<Object> state) {
+        if (state == null || state.size() < 12) {
+            return null;
+        }
+
+        // Skip if latitude or longitude is null (aircraft not transmitting position)
+        Double latitude = toDouble(state.get(6));
+        Double longitude = toDouble(state.get(5));
+        if (latitude == null || longitude == null) {
+            return state.get(5) == null || state.get(6) == null ? NO_POSITION : null;
+        }
+
+        Object icao24 = state.get(0);
+        if (!(icao24 instanceof String icao) || icao.isEmpty()) {
+            return null;
+        }
+
+        FlightState flight = new FlightState();
+
+        // Required fields
+        flight.setIcao24(icao);
+        flight.setLatitude(latitude);
+        flight.setLongitude(longitude);
+        flight.setOnGround(state.get(8) instanceof Boolean onGround ? onGround : Boolean.parseBoolean(String.valueOf(state.get(8))));
+
+        // Optional fields
+        flight.setCallsign(trimmed(state.get(1)));
+        flight.setOriginCountry(state.get(2) != null ? state.get(2).toString() : null);
+        flight.setAltitude(toDouble(state.get(7)));
+        flight.setVelocity(toDouble(state.get(9)));
+        flight.setHeading(toDouble(state.get(10)));
+        flight.setVerticalRate(toDouble(state.get(11)));
+
+        // Timestamp - use last_contact (index 4)
+        long lastContact = toEpochSecond(state.get(4));
+        flight.setTimestamp(lastContact != NO_TIMESTAMP ? toLocalDateTime(lastContact) : LocalDateTime.now());
+
+        return flight;
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    LocalDateTime toLocalDateTime(long epochSecond) {
+        OffsetWindow window = offsetWindow;
+        if (epochSecond < window.start() || epochSecond >= window.end()) {
+            window = windowFor(epochSecond);
+            offsetWindow = window;
+        }
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, window.offset());
+    }
+
+    /**
+     * The offset in force at epochSecond and the transitions either side of it
+     */
+    private OffsetWindow windowFor(long epochSecond) {
+        if (zoneRules.isFixedOffset()) {
+            return new OffsetWindow(Long.MIN_VALUE, Long.MAX_VALUE, zoneRules.getOffset(Instant.EPOCH));
+        }
+
+        Instant instant = Instant.ofEpochSecond(epochSecond);
+        ZoneOffsetTransition previous = zoneRules.previousTransition(instant.plusSeconds(1));
+        ZoneOffsetTransition next = zoneRules.nextTransition(instant);
+        return new OffsetWindow(
+                previous != null ? previous.toEpochSecond() : Long.MIN_VALUE,
+                next != null ? next.toEpochSecond() : Long.MAX_VALUE,
+                zoneRules.getOffset(instant));
+    }
+
+    private static Double toDouble(Object value) {
+        if (value instanceof Double d) {
+            return d;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof String text) {
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static long toEpochSecond(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text) {
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                return NO_TIMESTAMP;
+            }
+        }
+        return NO_TIMESTAMP;
+    }
+
+    private static String trimmed(Object value) {
+        return value != null ? value.toString().trim() : null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.david.flight.tracker.service;
+
+/**
+ * Minimal geohash maths on the raw bit form (no base32 strings).
+ *
+ * A geohash of n bits splits longitude into ceil(n/2) bits and latitude into floor(n/2)
+ * bits and interleaves them, longitude first. Cells at one precision form a regular
+ * grid, so neighbouring cells can be enumerated from their lat/lon indexes.
+ */
+public final class GeoHash {
+
+    // Earth radius used for all distance calculations
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final int latBits;
+    private final int lonBits;
+    private final double latCellDegrees;
+    private final double lonCellDegrees;
+
+    /**
+     * @param bits Total geohash bits (5 bits per base32 character)
+     */
+    public GeoHash(int bits) {
+        this.lonBits = (bits + 1) / 2;
+        this.latBits = bits / 2;
+        this.latCellDegrees = 180.0 / (1 << latBits);
+        this.lonCellDegrees = 360.0 / (1 << lonBits);
+    }
+
+    public int latIndex(double lat) {
+        int idx = (int) ((lat + 90) / latCellDegrees);
+        return Math.min(Math.max(idx, 0), (1 << latBits) - 1);
+    }
+
+    /**
+     * Longitude index, wrapped so any longitude maps to a valid cell
+     */
+    public int lonIndex(double lon) {
+        int cells = 1 << lonBits;
+        int idx = (int) Math.floor((lon + 180) / lonCellDegrees);
+        return Math.floorMod(idx, cells);
+    }
+
+    public int getLatCells() {
+        return 1 << latBits;
+    }
+
+    public int getLonCells() {
+        return 1 << lonBits;
+    }
+
+    public double getLatCellDegrees() {
+        return latCellDegrees;
+    }
+
+    public double getLonCellDegrees() {
+        return lonCellDegrees;
+    }
+
+    public long encode(double lat, double lon) {
+        return cell(latIndex(lat), lonIndex(lon));
+    }
+
+    /**
+     * Geohash bits for a cell given its grid indexes
+     */
+    public long cell(int latIdx, int lonIdx) {
+        long hash = 0;
+        int lonBit = lonBits - 1;
+        int latBit = latBits - 1;
+        for (int i = 0; i < latBits + lonBits; i++) {
+            if (i % 2 == 0) {
+                hash = (hash << 1) | ((lonIdx >> lonBit--) & 1);
+            } else {
+                hash = (hash << 1) | ((latIdx >> latBit--) & 1);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Great-circle distance in kilometres
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
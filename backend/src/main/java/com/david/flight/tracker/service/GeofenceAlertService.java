@@ -0,0 +1,189 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.dto.GeofenceEvent;
+import com.david.flight.tracker.model.entity.FlightState;
+import com.david.flight.tracker.model.entity.Geofence;
+import com.david.flight.tracker.repository.GeofenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches every ingested position against the registered geofences and
+ * pushes ENTER / EXIT events to /topic/geofences/{id}. An aircraft that stops
+ * reporting while inside a fence gets a LOST event once it goes stale.
+ *
+ * Cost per cycle is one grid lookup per aircraft plus a point-in-polygon test
+ * for the few fences sharing its cell - it does not grow with aircraft × fences.
+ */
+@Service
+public class GeofenceAlertService implements FlightIngestListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeofenceAlertService.class);
+    private static final long[] NONE = new long[0];
+
+    @Value("${geofences.index.cell-size-degrees:1.0}")
+    private double cellSize;
+
+    // Forget an aircraft's fence membership if it stops reporting (seconds)
+    @Value("${geofences.stale-seconds:900}")
+    private long staleSeconds;
+
+    @Autowired
+    private GeofenceRepository geofenceRepository;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    private volatile GeofenceIndex index = GeofenceIndex.empty();
+
+    // count + newest id of the geofence table when the index was built
+    private String loadedFingerprint = "";
+
+    // Fences each aircraft was inside at its last contact - only aircraft inside at least one
+    private final Map<String, Membership> memberships = new HashMap<>();
+
+    private record Membership(long[] fenceIds, FlightState lastContact, long lastSeenMillis) {
+    }
+
+    @Override
+    public void onFlightsIngested(List<FlightState> flights) {
+        process(flights, true);
+    }
+
+    /**
+     * Track memberships on a follower so it does not re-announce ENTERs if it takes over as leader
+     */
+    @Override
+    public void onFlightsReplicated(List<FlightState> flights) {
+        process(flights, false);
+    }
+
+    private synchronized void process(List<FlightState> flights, boolean broadcast) {
+        reloadIfChanged();
+        GeofenceIndex current = index;
+        if (current.getFenceCount() == 0 && memberships.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Map<Long, List<GeofenceEvent>> eventsByFence = new HashMap<>();
+
+        for (FlightState flight : flights) {
+            long[] inside = current.match(flight.getLatitude(), flight.getLongitude());
+            Membership previous = memberships.get(flight.getIcao24());
+            long[] before = previous != null ? previous.fenceIds() : NONE;
+
+            if (inside.length == 0) {
+                if (previous != null) {
+                    memberships.remove(flight.getIcao24());
+                }
+            } else {
+                memberships.put(flight.getIcao24(), new Membership(inside, flight, now));
+            }
+
+            diff(before, inside, flight, current, eventsByFence);
+        }
+
+        expireStaleMemberships(now, current, eventsByFence);
+
+        if (!broadcast) {
+            return;
+        }
+        eventsByFence.forEach(webSocketService::broadcastGeofenceEvents);
+
+        if (!eventsByFence.isEmpty()) {
+            logger.info("🚧 Geofences: {} fences with events | {} aircraft inside fences",
+                    eventsByFence.size(), memberships.size());
+        }
+    }
+
+    /**
+     * Rebuild the index now (after a geofence is added or removed on this node)
+     */
+    public synchronized void reload() {
+        List<Geofence> geofences = geofenceRepository.findAll();
+        index = GeofenceIndex.build(geofences, cellSize);
+        loadedFingerprint = fingerprint();
+        logger.info("🚧 Geofence index rebuilt: {} fences", index.getFenceCount());
+    }
+
+    public int getFenceCount() {
+        return index.getFenceCount();
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    /**
+     * Geofences may have been changed through another node - rebuild if so
+     */
+    private void reloadIfChanged() {
+        if (!fingerprint().equals(loadedFingerprint)) {
+            reload();
+        }
+    }
+
+    private String fingerprint() {
+        long newestId = geofenceRepository.findTopByOrderByIdDesc().map(Geofence::getId).orElse(0L);
+        return geofenceRepository.count() + ":" + newestId;
+    }
+
+    /**
+     * Emit ENTER for fences only in `after`, EXIT for fences only in `before` (both sorted)
+     */
+    private void diff(long[] before, long[] after, FlightState flight, GeofenceIndex current,
+                      Map<Long, List<GeofenceEvent>> eventsByFence) {
+        int i = 0, j = 0;
+        while (i < before.length || j < after.length) {
+            if (j >= after.length || (i < before.length && before[i] < after[j])) {
+                addEvent(GeofenceEvent.Type.EXIT, before[i++], flight, current, eventsByFence);
+            } else if (i >= before.length || after[j] < before[i]) {
+                addEvent(GeofenceEvent.Type.ENTER, after[j++], flight, current, eventsByFence);
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    private void addEvent(GeofenceEvent.Type type, long fenceId, FlightState flight, GeofenceIndex current,
+                          Map<Long, List<GeofenceEvent>> eventsByFence) {
+        GeofenceIndex.Fence fence = current.fence(fenceId);
+        if (fence == null) {
+            // Fence was deleted while the aircraft was inside - no alert
+            return;
+        }
+
+        eventsByFence.computeIfAbsent(fenceId, id -> new ArrayList<>()).add(new GeofenceEvent(
+                type, fenceId, fence.name(), flight.getIcao24(), flight.getCallsign(),
+                flight.getLatitude(), flight.getLongitude(), flight.getAltitude(), flight.getTimestamp()));
+    }
+
+    /**
+     * Forget aircraft that stopped reporting inside fences - LOST (at the last known position)
+     * tells subscribers they are no longer tracked there
+     */
+    private void expireStaleMemberships(long now, GeofenceIndex current, Map<Long, List<GeofenceEvent>> eventsByFence) {
+        long cutoff = now - staleSeconds * 1000;
+        Iterator<Membership> iterator = memberships.values().iterator();
+        while (iterator.hasNext()) {
+            Membership membership = iterator.next();
+            if (membership.lastSeenMillis() < cutoff) {
+                for (long fenceId : membership.fenceIds()) {
+                    addEvent(GeofenceEvent.Type.LOST, fenceId, membership.lastContact(), current, eventsByFence);
+                }
+                iterator.remove();
+            }
+        }
+    }
+}
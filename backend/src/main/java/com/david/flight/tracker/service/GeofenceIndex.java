@@ -0,0 +1,167 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.model.entity.Geofence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable uniform-grid index over geofence polygons.
+ *
+ * Each fence is registered in every grid cell its bounding box touches, so a lookup
+ * only tests the handful of fences in the aircraft's cell instead of all of them.
+ * Polygons are treated as planar in lat/lon and must not cross the antimeridian.
+ */
+public class GeofenceIndex {
+
+    private static final long[] NONE = new long[0];
+
+    private final double cellSize;
+    private final Map<Long, Fence[]> cells;
+    private final Map<Long, Fence> byId;
+
+    public record Fence(long id, String name, double[] lats, double[] lons,
+                        double minLat, double maxLat, double minLon, double maxLon) {
+
+        boolean contains(double lat, double lon) {
+            if (lat < minLat || lat > maxLat || lon < minLon || lon > maxLon) {
+                return false;
+            }
+
+            // Ray casting - count edges crossed by a ray heading east from the point
+            boolean inside = false;
+            for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+                if ((lats[i] > lat) != (lats[j] > lat)
+                        && lon < (lons[j] - lons[i]) * (lat - lats[i]) / (lats[j] - lats[i]) + lons[i]) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+    }
+
+    private GeofenceIndex(double cellSize, Map<Long, Fence[]> cells, Map<Long, Fence> byId) {
+        this.cellSize = cellSize;
+        this.cells = cells;
+        this.byId = byId;
+    }
+
+    public static GeofenceIndex empty() {
+        return new GeofenceIndex(1.0, Map.of(), Map.of());
+    }
+
+    /**
+     * Build an index from stored geofences
+     * @param cellSize Grid cell size in degrees
+     */
+    public static GeofenceIndex build(List<Geofence> geofences, double cellSize) {
+        Map<Long, List<Fence>> building = new HashMap<>();
+        Map<Long, Fence> byId = new HashMap<>();
+
+        for (Geofence geofence : geofences) {
+            Fence fence = toFence(geofence);
+            if (fence == null) {
+                continue;
+            }
+            byId.put(fence.id(), fence);
+
+            for (int latIdx = cellIndex(fence.minLat(), cellSize); latIdx <= cellIndex(fence.maxLat(), cellSize); latIdx++) {
+                for (int lonIdx = cellIndex(fence.minLon(), cellSize); lonIdx <= cellIndex(fence.maxLon(), cellSize); lonIdx++) {
+                    building.computeIfAbsent(cellKey(latIdx, lonIdx), k -> new ArrayList<>()).add(fence);
+                }
+            }
+        }
+
+        Map<Long, Fence[]> cells = new HashMap<>(building.size() * 2);
+        building.forEach((key, fences) -> cells.put(key, fences.toArray(new Fence[0])));
+        return new GeofenceIndex(cellSize, cells, byId);
+    }
+
+    /**
+     * IDs of all fences containing the point, sorted ascending
+     */
+    public long[] match(double lat, double lon) {
+        Fence[] candidates = cells.get(cellKey(cellIndex(lat, cellSize), cellIndex(lon, cellSize)));
+        if (candidates == null) {
+            return NONE;
+        }
+
+        long[] matches = null;
+        int found = 0;
+        for (Fence fence : candidates) {
+            if (fence.contains(lat, lon)) {
+                if (matches == null) {
+                    matches = new long[candidates.length];
+                }
+                matches[found++] = fence.id();
+            }
+        }
+
+        if (found == 0) {
+            return NONE;
+        }
+        long[] result = Arrays.copyOf(matches, found);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Fence by ID, or null if it is not in this index
+     */
+    public Fence fence(long id) {
+        return byId.get(id);
+    }
+
+    public int getFenceCount() {
+        return byId.size();
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    /**
+     * Parse the stored "lat,lon;lat,lon;..." polygon
+     * @return null if the polygon has fewer than 3 valid vertices
+     */
+    static Fence toFence(Geofence geofence) {
+        String[] vertices = geofence.getPolygon().split(";");
+        if (vertices.length < 3) {
+            return null;
+        }
+
+        double[] lats = new double[vertices.length];
+        double[] lons = new double[vertices.length];
+        double minLat = 90, maxLat = -90, minLon = 180, maxLon = -180;
+
+        for (int i = 0; i < vertices.length; i++) {
+            String[] parts = vertices[i].split(",");
+            if (parts.length != 2) {
+                return null;
+            }
+            try {
+                lats[i] = Double.parseDouble(parts[0].trim());
+                lons[i] = Double.parseDouble(parts[1].trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            minLat = Math.min(minLat, lats[i]);
+            maxLat = Math.max(maxLat, lats[i]);
+            minLon = Math.min(minLon, lons[i]);
+            maxLon = Math.max(maxLon, lons[i]);
+        }
+
+        return new Fence(geofence.getId(), geofence.getName(), lats, lons, minLat, maxLat, minLon, maxLon);
+    }
+
+    private static int cellIndex(double degrees, double cellSize) {
+        return (int) Math.floor(degrees / cellSize);
+    }
+
+    private static long cellKey(int latIdx, int lonIdx) {
+        return ((long) latIdx << 32) | (lonIdx & 0xffffffffL);
+    }
+}
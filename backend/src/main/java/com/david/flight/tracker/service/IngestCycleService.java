@@ -0,0 +1,83 @@
+package com.david.flight.tracker.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class IngestCycleService {
+
+    @Value("${scheduler.fetch.delay:180000}")
+    private long fetchDelayMs;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Seeded from the clock so a restart never hands out an ETag from a previous run
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    private volatile long lastCycleAtMillis = 0;
+
+    /**
+     * Published when this node changes the data version (not for versions received from other nodes)
+     */
+    public record VersionChangedEvent(long version, boolean newCycle) {
+    }
+
+    /**
+     * Mark the end of an ingest cycle - new flight data is now in the database
+     * @return The new data version
+     */
+    public long completeIngestCycle() {
+        lastCycleAtMillis = System.currentTimeMillis();
+        long newVersion = bump();
+        eventPublisher.publishEvent(new VersionChangedEvent(newVersion, true));
+        return newVersion;
+    }
+
+    /**
+     * Bump the data version without starting a new cycle (cleanup, manual deletes)
+     */
+    public long invalidate() {
+        long newVersion = bump();
+        eventPublisher.publishEvent(new VersionChangedEvent(newVersion, false));
+        return newVersion;
+    }
+
+    /**
+     * Adopt a version announced by another node
+     * Versions only move forward, so late or duplicate announcements are ignored
+     */
+    public void advanceTo(long remoteVersion, boolean newCycle) {
+        long previous = version.getAndAccumulate(remoteVersion, Math::max);
+        if (newCycle && remoteVersion > previous) {
+            lastCycleAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Current data version - changes whenever the stored flight data changes
+     */
+    public long getCurrentVersion() {
+        return version.get();
+    }
+
+    /**
+     * Seconds until the scheduler is expected to bring in new data
+     * Returns 0 if no cycle has completed yet
+     */
+    public long getSecondsUntilNextCycle() {
+        if (lastCycleAtMillis == 0) {
+            return 0;
+        }
+        long remaining = lastCycleAtMillis + fetchDelayMs - System.currentTimeMillis();
+        return Math.max(0, remaining / 1000);
+    }
+
+    private long bump() {
+        return version.updateAndGet(prev -> Math.max(prev + 1, System.currentTimeMillis()));
+    }
+}
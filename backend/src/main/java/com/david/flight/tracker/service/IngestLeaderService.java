@@ -0,0 +1,186 @@
+package com.david.flight.tracker.service;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * Elects a single ingest leader across backend instances using a Postgres advisory lock.
+ *
+ * Only the leader runs the scheduled fetch and cleanup. After every data change the
+ * leader sends a NOTIFY with the new data version; the other nodes LISTEN for it so
+ * their response caches and ETags move in step without fetching anything themselves.
+ *
+ * With leader election disabled (single node) this node is always the leader.
+ */
+@Service
+public class IngestLeaderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestLeaderService.class);
+    private static final String CHANNEL = "flight_ingest";
+
+    @Value("${cluster.leader-election.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cluster.leader-election.lock-key:727274}")
+    private long lockKey;
+
+    // Not taken from the pool: closing a pooled connection would keep the lock alive
+    @Value("${spring.datasource.url}")
+    private String datasourceUrl;
+
+    @Value("${spring.datasource.username:}")
+    private String datasourceUsername;
+
+    @Value("${spring.datasource.password:}")
+    private String datasourcePassword;
+
+    @Autowired
+    private IngestCycleService ingestCycleService;
+
+    // Dedicated session: the advisory lock lives exactly as long as this connection
+    private Connection connection;
+    private boolean leader = false;
+
+    /**
+     * Whether this node should run the ingest - tries to take the lock if nobody holds it
+     */
+    public synchronized boolean isLeader() {
+        if (!enabled) {
+            return true;
+        }
+
+        try {
+            ensureConnection();
+            if (!leader) {
+                try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                    statement.setLong(1, lockKey);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        leader = rs.next() && rs.getBoolean(1);
+                    }
+                }
+                if (leader) {
+                    logger.info("👑 This node is now the ingest leader");
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("❌ Leader election failed: {}", e.getMessage());
+            closeConnection();
+        }
+
+        return leader;
+    }
+
+    /**
+     * Tell the other nodes that the data version changed
+     */
+    @EventListener
+    public synchronized void onVersionChanged(IngestCycleService.VersionChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            ensureConnection();
+            try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                statement.setString(1, CHANNEL);
+                statement.setString(2, event.version() + "," + (event.newCycle() ? 1 : 0));
+                statement.execute();
+            }
+        } catch (SQLException e) {
+            logger.error("❌ Failed to announce data version {}: {}", event.version(), e.getMessage());
+            closeConnection();
+        }
+    }
+
+    /**
+     * Pick up versions announced by the leader
+     */
+    @Scheduled(fixedDelayString = "${cluster.notify.poll-interval:1000}")
+    public synchronized void pollNotifications() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            ensureConnection();
+
+            // Notifications are only read off the socket when the session talks to the server
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT 1");
+            }
+
+            PGNotification[] notifications = connection.unwrap(PGConnection.class).getNotifications();
+            if (notifications == null) {
+                return;
+            }
+
+            for (PGNotification notification : notifications) {
+                String[] parts = notification.getParameter().split(",");
+                ingestCycleService.advanceTo(Long.parseLong(parts[0]), "1".equals(parts[1]));
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.error("❌ Failed to read cluster notifications: {}", e.getMessage());
+            closeConnection();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        // Closing the session releases the advisory lock for the next node
+        closeConnection();
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private void ensureConnection() throws SQLException {
+        if (connection != null && connection.isValid(2)) {
+            return;
+        }
+
+        closeConnection();
+        Properties credentials = new Properties();
+        if (!datasourceUsername.isEmpty()) {
+            credentials.setProperty("user", datasourceUsername);
+            credentials.setProperty("password", datasourcePassword);
+        }
+        connection = DriverManager.getConnection(datasourceUrl, credentials);
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+        }
+    }
+
+    private void closeConnection() {
+        if (leader) {
+            logger.warn("⚠️ Giving up ingest leadership");
+        }
+        leader = false;
+
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.debug("Error closing leader connection: {}", e.getMessage());
+            }
+            connection = null;
+        }
+    }
+}
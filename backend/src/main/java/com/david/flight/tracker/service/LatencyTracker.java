@@ -0,0 +1,339 @@
+package com.david.flight.tracker.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Latency histograms for REST endpoints and repository methods, checked against SLOs.
+ *
+ * Each name gets a log-bucketed histogram (4 buckets per power of two, so percentiles
+ * are within ~25%). Executions slower than their SLO are kept with their arguments and
+ * row counts in a bounded ring for /api/admin/slow-queries.
+ *
+ * Summaries cover everything since start (or the last reset); SLO violations are judged
+ * on the p99 of the last latency.slo.window-minutes only, so an old incident stops
+ * counting once it has passed and a new one shows up without being diluted.
+ */
+@Service
+public class LatencyTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyTracker.class);
+
+    // Covers 0 µs up to ~19 hours
+    private static final int BUCKETS = 144;
+
+    @Value("${latency.slo.rest-ms:250}")
+    private long restSloMs;
+
+    @Value("${latency.slo.repository-ms:100}")
+    private long repositorySloMs;
+
+    // Per-name SLOs: "GET /api/flights/current=50,FlightStateRepository.findLatestPositions=500"
+    @Value("${latency.slo.overrides:}")
+    private String sloOverrides;
+
+    // Rolling window for SLO violations, kept as one histogram per minute
+    @Value("${latency.slo.window-minutes:5}")
+    private int windowMinutes;
+
+    @Value("${latency.slow-log.capacity:200}")
+    private int slowLogCapacity;
+
+    @Value("${latency.slow-log.max-arg-length:200}")
+    private int maxArgLength;
+
+    public enum Kind { REST, REPOSITORY }
+
+    public record SlowExecution(Kind kind, String name, LocalDateTime at, double durationMs,
+                                String args, long rows, long sloMs) {
+    }
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Long> overrides = new HashMap<>();
+
+    private SlowExecution[] slowLog;
+    private long slowLogWrites = 0;
+
+    private LongSupplier clock = System::currentTimeMillis;
+
+    @PostConstruct
+    public void init() {
+        slowLog = new SlowExecution[Math.max(1, slowLogCapacity)];
+        for (String entry : sloOverrides.split(",")) {
+            int split = entry.lastIndexOf('=');
+            if (split <= 0) {
+                continue;
+            }
+            try {
+                overrides.put(entry.substring(0, split).trim(), Long.parseLong(entry.substring(split + 1).trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("⚠️ Ignoring latency SLO override '{}'", entry);
+            }
+        }
+    }
+
+    /**
+     * Record one execution
+     * @param args Arguments / query string, only rendered if the execution breaches its SLO
+     * @param rows Rows returned or affected (-1 if not known)
+     */
+    public void record(Kind kind, String name, long nanos, Object args, long rows) {
+        Histogram histogram = histograms.computeIfAbsent(name,
+                n -> new Histogram(kind, sloFor(kind, n), Math.max(1, windowMinutes)));
+        long micros = nanos / 1000;
+        histogram.record(micros, currentMinute());
+
+        if (micros > histogram.sloMs * 1000) {
+            histogram.breaches.increment();
+            addSlow(new SlowExecution(kind, name, LocalDateTime.now(), micros / 1000.0,
+                    describe(args), rows, histogram.sloMs));
+            logger.debug("🐢 {} took {} ms (SLO {} ms)", name, micros / 1000, histogram.sloMs);
+        }
+    }
+
+    /**
+     * Per-name latency summary, worst p99 first
+     */
+    public List<Map<String, Object>> getStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        long minute = currentMinute();
+        histograms.forEach((name, histogram) -> stats.add(histogram.summary(name, minute)));
+        stats.sort(Comparator.comparingDouble((Map<String, Object> s) -> (Double) s.get("p99Ms")).reversed());
+        return stats;
+    }
+
+    /**
+     * Names whose p99 over the last window-minutes is above their SLO
+     */
+    public List<String> getViolations() {
+        long minute = currentMinute();
+        List<String> violations = new ArrayList<>();
+        histograms.forEach((name, histogram) -> {
+            if (histogram.recentPercentileMicros(0.99, minute) > histogram.sloMs * 1000) {
+                violations.add(name);
+            }
+        });
+        violations.sort(null);
+        return violations;
+    }
+
+    /**
+     * Sampled slow executions, newest first
+     */
+    public synchronized List<SlowExecution> getSlowExecutions() {
+        List<SlowExecution> result = new ArrayList<>();
+        int stored = (int) Math.min(slowLogWrites, slowLog.length);
+        for (int i = 1; i <= stored; i++) {
+            result.add(slowLog[(int) ((slowLogWrites - i) % slowLog.length)]);
+        }
+        return result;
+    }
+
+    public int getWindowMinutes() {
+        return windowMinutes;
+    }
+
+    public synchronized void reset() {
+        histograms.clear();
+        slowLog = new SlowExecution[slowLog.length];
+        slowLogWrites = 0;
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private long currentMinute() {
+        return clock.getAsLong() / 60_000;
+    }
+
+    private long sloFor(Kind kind, String name) {
+        Long override = overrides.get(name);
+        if (override != null) {
+            return override;
+        }
+        return kind == Kind.REST ? restSloMs : repositorySloMs;
+    }
+
+    private synchronized void addSlow(SlowExecution execution) {
+        slowLog[(int) (slowLogWrites++ % slowLog.length)] = execution;
+    }
+
+    /**
+     * Render arguments for the slow log - collections by size only, long values truncated
+     */
+    private String describe(Object args) {
+        if (args == null) {
+            return null;
+        }
+        if (!(args instanceof Object[] values)) {
+            return truncate(String.valueOf(args));
+        }
+
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            Object value = values[i];
+            if (value instanceof Collection<?> collection) {
+                text.append('<').append(collection.size()).append(" items>");
+            } else {
+                text.append(truncate(String.valueOf(value)));
+            }
+        }
+        return text.append(']').toString();
+    }
+
+    private String truncate(String value) {
+        return value.length() > maxArgLength ? value.substring(0, maxArgLength) + "..." : value;
+    }
+
+    static int bucketFor(long micros) {
+        if (micros < 4) {
+            return (int) Math.max(0, micros);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) ((micros >>> (exponent - 2)) & 3);
+        return Math.min(BUCKETS - 1, (exponent - 1) * 4 + sub);
+    }
+
+    static long bucketUpperMicros(int bucket) {
+        if (bucket < 4) {
+            return bucket;
+        }
+        int exponent = bucket / 4 + 1;
+        long lower = (4L + bucket % 4) << (exponent - 2);
+        return lower + (1L << (exponent - 2)) - 1;
+    }
+
+    private static class Histogram {
+        final Kind kind;
+        final long sloMs;
+        final LongAdder[] buckets = new LongAdder[BUCKETS];
+        final LongAdder count = new LongAdder();
+        final LongAdder totalMicros = new LongAdder();
+        final LongAdder breaches = new LongAdder();
+        final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+        // Ring of per-minute histograms for the rolling window
+        final MinuteSlot[] recent;
+
+        Histogram(Kind kind, long sloMs, int windowMinutes) {
+            this.kind = kind;
+            this.sloMs = sloMs;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+            recent = new MinuteSlot[windowMinutes];
+            for (int i = 0; i < windowMinutes; i++) {
+                recent[i] = new MinuteSlot();
+            }
+        }
+
+        void record(long micros, long minute) {
+            int bucket = bucketFor(micros);
+            buckets[bucket].increment();
+            count.increment();
+            totalMicros.add(micros);
+            maxMicros.accumulate(micros);
+
+            MinuteSlot slot = recent[(int) (minute % recent.length)];
+            if (slot.minute != minute) {
+                slot.reuse(minute);
+            }
+            slot.buckets.incrementAndGet(bucket);
+        }
+
+        long percentileMicros(double p) {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return Math.min(percentile(counts, count.sum(), p), maxMicros.get());
+        }
+
+        long recentPercentileMicros(double p, long minute) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (MinuteSlot slot : recent) {
+                if (slot.minute <= minute - recent.length || slot.minute > minute) {
+                    continue;
+                }
+                for (int i = 0; i < BUCKETS; i++) {
+                    long n = slot.buckets.get(i);
+                    counts[i] += n;
+                    total += n;
+                }
+            }
+            return Math.min(percentile(counts, total, p), maxMicros.get());
+        }
+
+        Map<String, Object> summary(String name, long minute) {
+            long total = count.sum();
+            long p99 = recentPercentileMicros(0.99, minute);
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("name", name);
+            summary.put("kind", kind);
+            summary.put("count", total);
+            summary.put("meanMs", total > 0 ? totalMicros.sum() / 1000.0 / total : 0.0);
+            summary.put("p50Ms", percentileMicros(0.50) / 1000.0);
+            summary.put("p95Ms", percentileMicros(0.95) / 1000.0);
+            summary.put("p99Ms", percentileMicros(0.99) / 1000.0);
+            summary.put("recentP99Ms", p99 / 1000.0);
+            summary.put("maxMs", maxMicros.get() / 1000.0);
+            summary.put("sloMs", sloMs);
+            summary.put("sloBreaches", breaches.sum());
+            summary.put("violatingSlo", p99 > sloMs * 1000);
+            return summary;
+        }
+    }
+
+    private static long percentile(long[] counts, long total, double p) {
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(total * p);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return bucketUpperMicros(i);
+            }
+        }
+        return bucketUpperMicros(BUCKETS - 1);
+    }
+
+    private static class MinuteSlot {
+        volatile long minute = -1;
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        synchronized void reuse(long newMinute) {
+            if (minute == newMinute) {
+                return;
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            minute = newMinute;
+        }
+    }
+}
@@ -0,0 +1,568 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.model.entity.FlightState;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Live aircraft state kept in memory: the latest airborne position of every aircraft
+ * plus a short ring of recent trail points.
+ *
+ * The state is checkpointed to a memory-mapped snapshot file in the background after
+ * every ingest cycle and on shutdown, and loaded again while the context starts - before
+ * the HTTP port opens - so /current and short /trail requests are answered from memory
+ * straight after a restart instead of waiting for the first fetch.
+ */
+@Service
+public class LiveFlightStore implements FlightIngestListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveFlightStore.class);
+
+    // "FLSN" + format version
+    private static final int SNAPSHOT_MAGIC = 0x464C534E;
+    private static final int SNAPSHOT_FORMAT = 2;
+
+    // Fixed part of one serialised position (see writeState)
+    private static final int STATE_FIXED_BYTES = 8 + 2 * 7 + 8 * 6 + 1 + 8 + 4;
+
+    // Largest possible position (every string at its maximum length), and one aircraft header with it
+    private static final int MAX_STATE_BYTES = STATE_FIXED_BYTES + 7 * Short.MAX_VALUE;
+    private static final int MAX_RECORD_BYTES = 1 + MAX_STATE_BYTES + 4;
+
+    @Value("${flights.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    @Value("${flights.snapshot.path:data/flight-snapshot.bin}")
+    private String snapshotPath;
+
+    // Recent trail kept per aircraft - covers the default 2 hour /trail request
+    @Value("${flights.live.trail-hours:2}")
+    private long trailHours;
+
+    // Cap per aircraft - a trail that outgrows it is answered from the database
+    @Value("${flights.live.trail-max-points:120}")
+    private int trailMaxPoints;
+
+    // Snapshots older than this are not worth loading (seconds)
+    @Value("${flights.snapshot.max-age-seconds:3600}")
+    private long snapshotMaxAgeSeconds;
+
+    // Larger snapshots are not written (the old one is removed rather than left to go stale)
+    @Value("${flights.snapshot.max-mb:512}")
+    private long snapshotMaxMb;
+
+    // Part of the file mapped at a time - a single mapping cannot cover more than 2 GB
+    private int mappingWindowBytes = 64 * 1024 * 1024;
+
+    @Autowired
+    private IngestCycleService ingestCycleService;
+
+    private final Map<String, FlightState> latest = new ConcurrentHashMap<>();
+    private final Map<String, ArrayDeque<FlightState>> trails = new HashMap<>();
+
+    // Trails are complete from this time on (first ingest, or the start of the loaded snapshot)
+    private volatile LocalDateTime coveredSince;
+
+    // Data version the store matches; any other version means the database has moved on
+    private volatile long storeVersion = -1;
+
+    private volatile long snapshotLoadMillis = -1;
+    private volatile int snapshotAircraftLoaded = 0;
+    private volatile long startupMillis = -1;
+
+    // Snapshots are written off the ingest thread; requests made while one is queued are folded into it
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "flight-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean snapshotQueued = new AtomicBoolean();
+
+    // Held while the file is written - the shutdown save may overlap a background one
+    private final Object snapshotFileLock = new Object();
+
+    private record SnapshotEntry(FlightState current, List<FlightState> trail) {
+    }
+
+    @PostConstruct
+    public void loadSnapshot() {
+        if (!snapshotEnabled) {
+            return;
+        }
+
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            logger.info("💾 No flight snapshot at {} - starting cold", path.toAbsolutePath());
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedWindow window = new MappedWindow(channel, FileChannel.MapMode.READ_ONLY, channel.size(), mappingWindowBytes);
+            MappedByteBuffer buffer = window.ensure(4 + 4 + 8 + 12 + 4);
+            if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_FORMAT) {
+                logger.warn("⚠️ Ignoring flight snapshot {} - unknown format", path);
+                return;
+            }
+
+            long savedAtMillis = buffer.getLong();
+            if (System.currentTimeMillis() - savedAtMillis > snapshotMaxAgeSeconds * 1000) {
+                logger.info("💾 Flight snapshot is older than {}s - starting cold", snapshotMaxAgeSeconds);
+                return;
+            }
+
+            LocalDateTime covered = readTime(buffer);
+            int aircraft = buffer.getInt();
+            synchronized (this) {
+                for (int i = 0; i < aircraft; i++) {
+                    buffer = window.ensure(MAX_RECORD_BYTES);
+                    FlightState current = buffer.get() == 1 ? readState(buffer) : null;
+                    int points = buffer.getInt();
+                    ArrayDeque<FlightState> trail = new ArrayDeque<>(points);
+                    for (int p = 0; p < points; p++) {
+                        trail.addLast(readState(window.ensure(MAX_STATE_BYTES)));
+                    }
+
+                    String icao24 = current != null ? current.getIcao24() : trail.isEmpty() ? null : trail.peekFirst().getIcao24();
+                    if (icao24 == null) {
+                        continue;
+                    }
+                    if (current != null) {
+                        latest.put(icao24, current);
+                    }
+                    trails.put(icao24, trail);
+                }
+                coveredSince = covered;
+                storeVersion = ingestCycleService.getCurrentVersion();
+            }
+
+            snapshotAircraftLoaded = aircraft;
+            snapshotLoadMillis = System.currentTimeMillis() - start;
+            logger.info("💾 Flight snapshot loaded: {} aircraft in {} ms (saved {}s ago)",
+                    aircraft, snapshotLoadMillis, (System.currentTimeMillis() - savedAtMillis) / 1000);
+        } catch (Exception e) {
+            // A damaged snapshot only costs us the warm start
+            latest.clear();
+            trails.clear();
+            coveredSince = null;
+            storeVersion = -1;
+            logger.warn("⚠️ Could not load flight snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        startupMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        logger.info("🚀 Ready to serve in {} ms (JVM uptime) | snapshot load {} ms | {} aircraft warm",
+                startupMillis, snapshotLoadMillis, latest.size());
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        // A queued save is dropped - the one below writes the same data or newer
+        snapshotExecutor.shutdownNow();
+        if (snapshotEnabled && storeVersion != -1) {
+            saveSnapshot();
+        }
+    }
+
+    @Override
+    public void onFlightsIngested(List<FlightState> flights) {
+        synchronized (this) {
+            LocalDateTime trailCutoff = LocalDateTime.now().minusHours(trailHours);
+            for (FlightState flight : flights) {
+                if (!Boolean.TRUE.equals(flight.getOnGround())) {
+                    latest.put(flight.getIcao24(), flight);
+                }
+
+                ArrayDeque<FlightState> trail = trails.computeIfAbsent(flight.getIcao24(), k -> new ArrayDeque<>());
+                FlightState newest = trail.peekFirst();
+                if (newest == null || flight.getTimestamp().isAfter(newest.getTimestamp())) {
+                    trail.addFirst(flight);
+                }
+                while (trail.size() > trailMaxPoints) {
+                    trail.removeLast();
+                }
+            }
+            expire(trailCutoff);
+
+            if (coveredSince == null) {
+                coveredSince = LocalDateTime.now();
+            }
+            storeVersion = ingestCycleService.getCurrentVersion();
+        }
+
+        if (snapshotEnabled) {
+            requestSnapshot();
+        }
+    }
+
+    /**
+     * Anything else changing the data (cleanup, clear, another node's ingest) makes the store stale
+     * until the next ingest on this node
+     */
+    @EventListener
+    public void onVersionChanged(IngestCycleService.VersionChangedEvent event) {
+        if (event.version() != storeVersion) {
+            storeVersion = -1;
+        }
+    }
+
+    // ===================================================================
+    // QUERIES
+    // ===================================================================
+
+    /**
+     * True if the store matches the current data version and can answer instead of the database
+     */
+    public boolean isWarm() {
+        return storeVersion != -1 && storeVersion == ingestCycleService.getCurrentVersion();
+    }
+
+    /**
+     * Latest airborne position of every aircraft seen since the cutoff, newest first
+     * (same result as FlightStateRepository.findLatestPositions)
+     */
+    public List<FlightState> getCurrentFlights(LocalDateTime since) {
+        List<FlightState> current = new ArrayList<>();
+        for (FlightState flight : latest.values()) {
+            if (flight.getTimestamp().isAfter(since)) {
+                current.add(flight);
+            }
+        }
+        current.sort(Comparator.comparing(FlightState::getTimestamp).reversed());
+        return current;
+    }
+
+    /**
+     * Trail since a time, newest first
+     * @return null if the store does not hold the whole range - ask the database instead
+     */
+    public synchronized List<FlightState> getTrail(String icao24, LocalDateTime since) {
+        if (!isWarm() || coveredSince == null || since.isBefore(coveredSince)
+                || since.isBefore(LocalDateTime.now().minusHours(trailHours))) {
+            return null;
+        }
+
+        ArrayDeque<FlightState> trail = trails.get(icao24);
+        if (trail != null && trail.size() >= trailMaxPoints && trail.peekLast().getTimestamp().isAfter(since)) {
+            // The ring is full - older points in the range were dropped to make room
+            return null;
+        }
+
+        List<FlightState> result = new ArrayList<>();
+        if (trail != null) {
+            for (FlightState point : trail) {
+                if (!point.getTimestamp().isAfter(since)) {
+                    break;
+                }
+                result.add(point);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return latest.size();
+    }
+
+    public long getSnapshotLoadMillis() {
+        return snapshotLoadMillis;
+    }
+
+    public int getSnapshotAircraftLoaded() {
+        return snapshotAircraftLoaded;
+    }
+
+    public long getStartupMillis() {
+        return startupMillis;
+    }
+
+    // ===================================================================
+    // SNAPSHOT FILE
+    // ===================================================================
+
+    /**
+     * Queue a background save, unless one is already queued and has not started yet
+     */
+    void requestSnapshot() {
+        if (!snapshotQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            snapshotExecutor.execute(() -> {
+                snapshotQueued.set(false);
+                saveSnapshot();
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down - saveOnShutdown writes the final snapshot
+            snapshotQueued.set(false);
+        }
+    }
+
+    /**
+     * Copy the store under its lock, then write the copy to a temp file through memory-mapped
+     * windows and atomically replace the snapshot - readers only wait for the copy
+     */
+    void saveSnapshot() {
+        LocalDateTime covered;
+        List<SnapshotEntry> entries;
+        synchronized (this) {
+            covered = coveredSince != null ? coveredSince : LocalDateTime.now();
+            entries = new ArrayList<>(trails.size());
+            for (Map.Entry<String, ArrayDeque<FlightState>> entry : trails.entrySet()) {
+                entries.add(new SnapshotEntry(latest.get(entry.getKey()), new ArrayList<>(entry.getValue())));
+            }
+        }
+
+        synchronized (snapshotFileLock) {
+            writeSnapshot(covered, entries);
+        }
+    }
+
+    private void writeSnapshot(LocalDateTime covered, List<SnapshotEntry> entries) {
+        long start = System.currentTimeMillis();
+        Path path = Paths.get(snapshotPath);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        long size = 4 + 4 + 8 + 12 + 4;
+        for (SnapshotEntry entry : entries) {
+            size += 1 + 4 + (entry.current() != null ? stateSize(entry.current()) : 0);
+            for (FlightState point : entry.trail()) {
+                size += stateSize(point);
+            }
+        }
+
+        try {
+            if (size > snapshotMaxMb * 1024 * 1024) {
+                // Loading an older snapshot would warm the next start with data far behind
+                Files.deleteIfExists(path);
+                logger.warn("⚠️ Flight snapshot not saved: {} MB is over flights.snapshot.max-mb={}",
+                        size / (1024 * 1024), snapshotMaxMb);
+                return;
+            }
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedWindow window = new MappedWindow(channel, FileChannel.MapMode.READ_WRITE, size, mappingWindowBytes);
+                MappedByteBuffer buffer = window.ensure(4 + 4 + 8 + 12 + 4);
+                buffer.putInt(SNAPSHOT_MAGIC);
+                buffer.putInt(SNAPSHOT_FORMAT);
+                buffer.putLong(System.currentTimeMillis());
+                writeTime(buffer, covered);
+                buffer.putInt(entries.size());
+
+                for (SnapshotEntry entry : entries) {
+                    buffer = window.ensure(MAX_RECORD_BYTES);
+                    buffer.put((byte) (entry.current() != null ? 1 : 0));
+                    if (entry.current() != null) {
+                        writeState(buffer, entry.current());
+                    }
+                    buffer.putInt(entry.trail().size());
+                    for (FlightState point : entry.trail()) {
+                        writeState(window.ensure(MAX_STATE_BYTES), point);
+                    }
+                }
+                window.force();
+            }
+
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("💾 Flight snapshot saved: {} aircraft, {} KB in {} ms",
+                    entries.size(), size / 1024, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not save flight snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Sequential reads or writes through a mapping of part of the file, moved along as it is used up
+     */
+    private static final class MappedWindow {
+        private final FileChannel channel;
+        private final FileChannel.MapMode mode;
+        private final long fileSize;
+        private final int windowBytes;
+        private MappedByteBuffer buffer;
+        private long bufferStart;
+
+        MappedWindow(FileChannel channel, FileChannel.MapMode mode, long fileSize, int windowBytes) throws IOException {
+            this.channel = channel;
+            this.mode = mode;
+            this.fileSize = fileSize;
+            this.windowBytes = windowBytes;
+            map(0, 0);
+        }
+
+        /**
+         * The mapped buffer, moved on first if fewer than bytes are left in it (near the end, whatever the file has left)
+         */
+        MappedByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes && bufferStart + buffer.limit() < fileSize) {
+                force();
+                map(bufferStart + buffer.position(), bytes);
+            }
+            return buffer;
+        }
+
+        void force() {
+            if (mode == FileChannel.MapMode.READ_WRITE) {
+                buffer.force();
+            }
+        }
+
+        private void map(long position, int bytes) throws IOException {
+            bufferStart = position;
+            buffer = channel.map(mode, position, Math.min(Math.max(windowBytes, bytes), fileSize - position));
+        }
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private void expire(LocalDateTime trailCutoff) {
+        latest.values().removeIf(flight -> flight.getTimestamp().isBefore(trailCutoff));
+
+        Iterator<ArrayDeque<FlightState>> iterator = trails.values().iterator();
+        while (iterator.hasNext()) {
+            ArrayDeque<FlightState> trail = iterator.next();
+            while (!trail.isEmpty() && trail.peekLast().getTimestamp().isBefore(trailCutoff)) {
+                trail.removeLast();
+            }
+            if (trail.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static int stateSize(FlightState flight) {
+        return STATE_FIXED_BYTES + utf8Length(flight.getIcao24()) + utf8Length(flight.getCallsign())
+                + utf8Length(flight.getOriginCountry()) + utf8Length(flight.getRegistration())
+                + utf8Length(flight.getAircraftType()) + utf8Length(flight.getAircraftModel())
+                + utf8Length(flight.getOperator());
+    }
+
+    /**
+     * id, icao24, callsign, originCountry, registration, aircraftType, aircraftModel, operator,
+     * lat, lon, altitude, velocity, heading, verticalRate, onGround, timestamp (seconds + nanos)
+     * - missing numbers are stored as NaN
+     */
+    private static void writeState(MappedByteBuffer buffer, FlightState flight) {
+        buffer.putLong(flight.getId() != null ? flight.getId() : -1);
+        writeString(buffer, flight.getIcao24());
+        writeString(buffer, flight.getCallsign());
+        writeString(buffer, flight.getOriginCountry());
+        writeString(buffer, flight.getRegistration());
+        writeString(buffer, flight.getAircraftType());
+        writeString(buffer, flight.getAircraftModel());
+        writeString(buffer, flight.getOperator());
+        buffer.putDouble(flight.getLatitude());
+        buffer.putDouble(flight.getLongitude());
+        buffer.putDouble(orNaN(flight.getAltitude()));
+        buffer.putDouble(orNaN(flight.getVelocity()));
+        buffer.putDouble(orNaN(flight.getHeading()));
+        buffer.putDouble(orNaN(flight.getVerticalRate()));
+        buffer.put((byte) (Boolean.TRUE.equals(flight.getOnGround()) ? 1 : 0));
+        writeTime(buffer, flight.getTimestamp());
+    }
+
+    private static FlightState readState(MappedByteBuffer buffer) {
+        FlightState flight = new FlightState();
+        long id = buffer.getLong();
+        flight.setId(id != -1 ? id : null);
+        flight.setIcao24(readString(buffer));
+        flight.setCallsign(readString(buffer));
+        flight.setOriginCountry(readString(buffer));
+        flight.setRegistration(readString(buffer));
+        flight.setAircraftType(readString(buffer));
+        flight.setAircraftModel(readString(buffer));
+        flight.setOperator(readString(buffer));
+        flight.setLatitude(buffer.getDouble());
+        flight.setLongitude(buffer.getDouble());
+        flight.setAltitude(fromNaN(buffer.getDouble()));
+        flight.setVelocity(fromNaN(buffer.getDouble()));
+        flight.setHeading(fromNaN(buffer.getDouble()));
+        flight.setVerticalRate(fromNaN(buffer.getDouble()));
+        flight.setOnGround(buffer.get() == 1);
+        flight.setTimestamp(readTime(buffer));
+        return flight;
+    }
+
+    private static void writeTime(MappedByteBuffer buffer, LocalDateTime time) {
+        buffer.putLong(time.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(MappedByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        return LocalDateTime.ofEpochSecond(seconds, buffer.getInt(), ZoneOffset.UTC);
+    }
+
+    // Strings are a 2-byte length (-1 for null) followed by UTF-8 bytes
+    private static void writeString(MappedByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int utf8Length(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private static Double fromNaN(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
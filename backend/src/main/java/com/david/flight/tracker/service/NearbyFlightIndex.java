@@ -0,0 +1,302 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.dto.ClosestApproach;
+import com.david.flight.tracker.dto.NearbyFlight;
+import com.david.flight.tracker.model.entity.FlightState;
+import com.david.flight.tracker.repository.FlightStateRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory geohash index of the latest position of every aircraft.
+ *
+ * Positions are bucketed by geohash cell and moved between cells as each ingest
+ * arrives. Radius queries only visit the cells overlapping the search circle and
+ * refine candidates with the haversine distance; k-nearest queries widen the radius
+ * until enough aircraft are found.
+ *
+ * Historical "who passed near X between T1 and T2" queries go to the database, where
+ * a GiST index on point(longitude, latitude) narrows the scan to the bounding box and
+ * only the closest approach of each aircraft comes back.
+ */
+@Service
+public class NearbyFlightIndex implements FlightIngestListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearbyFlightIndex.class);
+
+    private static final double KM_PER_DEGREE = Math.PI * GeoHash.EARTH_RADIUS_KM / 180;
+    private static final double MAX_RADIUS_KM = Math.PI * GeoHash.EARTH_RADIUS_KM;
+    private static final double INITIAL_KNN_RADIUS_KM = 50;
+
+    // 20 bits = 4 geohash characters, cells of roughly 40 x 20 km
+    @Value("${flights.near.geohash-bits:20}")
+    private int geohashBits;
+
+    // Positions older than this are not live any more (matches /current)
+    @Value("${flights.near.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    // Cap on historical results when no k is given
+    @Value("${flights.near.max-results:5000}")
+    private int maxResults;
+
+    @Autowired
+    private FlightStateRepository flightStateRepository;
+
+    @Autowired
+    private IngestCycleService ingestCycleService;
+
+    private GeoHash geoHash;
+
+    private final Map<String, Entry> byIcao = new ConcurrentHashMap<>();
+    private final Map<Long, Map<String, Entry>> cells = new ConcurrentHashMap<>();
+
+    private volatile long lastFedMillis = 0;
+    private volatile long builtVersion = -1;
+
+    private record Entry(FlightState flight, long cell) {
+    }
+
+    @PostConstruct
+    public void init() {
+        geoHash = new GeoHash(geohashBits);
+    }
+
+    @Override
+    public synchronized void onFlightsIngested(List<FlightState> flights) {
+        for (FlightState flight : flights) {
+            put(flight);
+        }
+        removeStale();
+
+        lastFedMillis = System.currentTimeMillis();
+        builtVersion = ingestCycleService.getCurrentVersion();
+    }
+
+    // ===================================================================
+    // LIVE QUERIES
+    // ===================================================================
+
+    /**
+     * Aircraft near a point, closest first
+     * @param radiusKm Only aircraft within this distance (null = no limit)
+     * @param k Return at most k aircraft (null = all within the radius)
+     */
+    public List<NearbyFlight> findNearby(double lat, double lon, Double radiusKm, Integer k) {
+        refreshIfStale();
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(maxAgeSeconds);
+        double maxRadius = radiusKm != null ? Math.min(radiusKm, MAX_RADIUS_KM) : MAX_RADIUS_KM;
+
+        if (k == null) {
+            return within(lat, lon, maxRadius, cutoff);
+        }
+
+        // Everything within r is found, so once k are inside r the k nearest are among them
+        double radius = Math.min(INITIAL_KNN_RADIUS_KM, maxRadius);
+        while (true) {
+            List<NearbyFlight> found = within(lat, lon, radius, cutoff);
+            if (found.size() >= k || radius >= maxRadius) {
+                return found.size() > k ? new ArrayList<>(found.subList(0, k)) : found;
+            }
+            radius = Math.min(radius * 4, maxRadius);
+        }
+    }
+
+    public int size() {
+        return byIcao.size();
+    }
+
+    private List<NearbyFlight> within(double lat, double lon, double radiusKm, LocalDateTime cutoff) {
+        List<NearbyFlight> result = new ArrayList<>();
+
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double minLat = lat - dLat;
+        double maxLat = lat + dLat;
+
+        // Longitude span widens towards the poles; past a pole every longitude is in range
+        double dLon = 180;
+        if (minLat > -90 && maxLat < 90) {
+            double widestLat = Math.max(Math.abs(minLat), Math.abs(maxLat));
+            dLon = Math.min(180, dLat / Math.cos(Math.toRadians(widestLat)));
+        }
+
+        int minLatIdx = geoHash.latIndex(Math.max(-90, minLat));
+        int maxLatIdx = geoHash.latIndex(Math.min(90, maxLat));
+        int lonCellCount = Math.min(geoHash.getLonCells(),
+                (int) Math.ceil(2 * dLon / geoHash.getLonCellDegrees()) + 1);
+        long cellsToVisit = (long) (maxLatIdx - minLatIdx + 1) * lonCellCount;
+
+        if (cellsToVisit >= byIcao.size()) {
+            // Huge radius - a plain scan is cheaper than visiting empty cells
+            for (Entry entry : byIcao.values()) {
+                collect(entry, lat, lon, radiusKm, cutoff, result);
+            }
+        } else {
+            int firstLonIdx = geoHash.lonIndex(lon - dLon);
+            for (int latIdx = minLatIdx; latIdx <= maxLatIdx; latIdx++) {
+                for (int i = 0; i < lonCellCount; i++) {
+                    int lonIdx = (firstLonIdx + i) % geoHash.getLonCells();
+                    Map<String, Entry> cell = cells.get(geoHash.cell(latIdx, lonIdx));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Entry entry : cell.values()) {
+                        collect(entry, lat, lon, radiusKm, cutoff, result);
+                    }
+                }
+            }
+        }
+
+        result.sort(Comparator.comparingDouble(NearbyFlight::getDistanceKm));
+        return result;
+    }
+
+    private void collect(Entry entry, double lat, double lon, double radiusKm, LocalDateTime cutoff,
+                         List<NearbyFlight> result) {
+        FlightState flight = entry.flight();
+        if (flight.getTimestamp().isBefore(cutoff)) {
+            return;
+        }
+        double distance = GeoHash.haversineKm(lat, lon, flight.getLatitude(), flight.getLongitude());
+        if (distance <= radiusKm) {
+            result.add(new NearbyFlight(flight, distance));
+        }
+    }
+
+    // ===================================================================
+    // HISTORICAL QUERIES
+    // ===================================================================
+
+    /**
+     * Aircraft that passed within radiusKm of a point between two times
+     * Returns each aircraft once, at its closest recorded approach - deduplication,
+     * distance filtering and k are applied in the database
+     */
+    public List<NearbyFlight> findPassedNear(double lat, double lon, double radiusKm,
+                                             LocalDateTime from, LocalDateTime to, Integer k) {
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double minLat = Math.max(-90, lat - dLat);
+        double maxLat = Math.min(90, lat + dLat);
+        double dLon = 180;
+        if (lat - dLat > -90 && lat + dLat < 90) {
+            dLon = Math.min(180, dLat / Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat)))));
+        }
+
+        // Second box only differs from the first when the area crosses the antimeridian
+        double minLon = lon - dLon;
+        double maxLon = lon + dLon;
+        double[] lonRanges;
+        if (dLon >= 180) {
+            lonRanges = new double[]{-180, 180, -180, 180};
+        } else if (minLon < -180) {
+            lonRanges = new double[]{minLon + 360, 180, -180, maxLon};
+        } else if (maxLon > 180) {
+            lonRanges = new double[]{minLon, 180, -180, maxLon - 360};
+        } else {
+            lonRanges = new double[]{minLon, maxLon, minLon, maxLon};
+        }
+
+        int limit = k != null ? Math.min(k, maxResults) : maxResults;
+        List<ClosestApproach> rows = flightStateRepository.findClosestApproaches(lat, lon, radiusKm,
+                GeoHash.EARTH_RADIUS_KM, minLat, maxLat, lonRanges[0], lonRanges[1], lonRanges[2], lonRanges[3],
+                from, to, limit);
+
+        List<NearbyFlight> result = new ArrayList<>(rows.size());
+        for (ClosestApproach row : rows) {
+            result.add(new NearbyFlight(toFlightState(row), row.getDistanceKm()));
+        }
+        return result;
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private static FlightState toFlightState(ClosestApproach row) {
+        FlightState flight = new FlightState();
+        flight.setId(row.getId());
+        flight.setIcao24(row.getIcao24());
+        flight.setCallsign(row.getCallsign());
+        flight.setOriginCountry(row.getOriginCountry());
+        flight.setRegistration(row.getRegistration());
+        flight.setAircraftType(row.getAircraftType());
+        flight.setAircraftModel(row.getAircraftModel());
+        flight.setOperator(row.getOperator());
+        flight.setTimestamp(row.getTimestamp());
+        flight.setLatitude(row.getLatitude());
+        flight.setLongitude(row.getLongitude());
+        flight.setAltitude(row.getAltitude());
+        flight.setVelocity(row.getVelocity());
+        flight.setHeading(row.getHeading());
+        flight.setVerticalRate(row.getVerticalRate());
+        flight.setOnGround(row.getOnGround());
+        return flight;
+    }
+
+    private void put(FlightState flight) {
+        long cell = geoHash.encode(flight.getLatitude(), flight.getLongitude());
+        Entry entry = new Entry(flight, cell);
+        Entry previous = byIcao.put(flight.getIcao24(), entry);
+
+        if (previous != null && previous.cell() != cell) {
+            removeFromCell(previous.cell(), flight.getIcao24());
+        }
+        cells.computeIfAbsent(cell, c -> new ConcurrentHashMap<>()).put(flight.getIcao24(), entry);
+    }
+
+    private void removeFromCell(long cell, String icao24) {
+        cells.computeIfPresent(cell, (c, members) -> {
+            members.remove(icao24);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private void removeStale() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(maxAgeSeconds);
+        byIcao.values().removeIf(entry -> {
+            if (entry.flight().getTimestamp().isBefore(cutoff)) {
+                removeFromCell(entry.cell(), entry.flight().getIcao24());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Nodes that don't run the ingest (cluster followers, or right after a restart)
+     * load the latest positions from the database once per data version
+     */
+    private void refreshIfStale() {
+        long version = ingestCycleService.getCurrentVersion();
+        boolean fedRecently = System.currentTimeMillis() - lastFedMillis < maxAgeSeconds * 1000;
+        if (fedRecently || builtVersion == version) {
+            return;
+        }
+
+        synchronized (this) {
+            if (builtVersion == version) {
+                return;
+            }
+            List<FlightState> latest = flightStateRepository.findLatestPositions(
+                    LocalDateTime.now().minusSeconds(maxAgeSeconds));
+            byIcao.clear();
+            cells.clear();
+            for (FlightState flight : latest) {
+                put(flight);
+            }
+            builtVersion = version;
+            logger.info("📍 Nearby index loaded from database: {} aircraft", latest.size());
+        }
+    }
+}
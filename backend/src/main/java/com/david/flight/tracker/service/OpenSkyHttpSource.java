@@ -0,0 +1,83 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.dto.OpenSkyResponse;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Live OpenSky API source.
+ *
+ * With flights.source.record-dir set, every response is also written to that directory
+ * as states-<epochSeconds>.json so it can be replayed later by ReplayFlightSource.
+ */
+@Service
+@ConditionalOnProperty(name = "flights.source", havingValue = "opensky", matchIfMissing = true)
+public class OpenSkyHttpSource implements FlightDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenSkyHttpSource.class);
+
+    @Value("${opensky.api.url}")
+    private String openSkyApiUrl;
+
+    @Value("${flights.source.record-dir:}")
+    private String recordDir;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @PostConstruct
+    public void init() {
+        if (!recordDir.isBlank()) {
+            logger.info("🎙️ Recording OpenSky responses to {}", Paths.get(recordDir).toAbsolutePath());
+        }
+    }
+
+    @Override
+    public OpenSkyResponse fetchStates() throws Exception {
+        if (recordDir.isBlank()) {
+            return restTemplate.getForObject(openSkyApiUrl, OpenSkyResponse.class);
+        }
+
+        String body = restTemplate.getForObject(openSkyApiUrl, String.class);
+        if (body == null) {
+            return null;
+        }
+        record(body);
+        return jsonMapper.readValue(body, OpenSkyResponse.class);
+    }
+
+    @Override
+    public String getName() {
+        return "OpenSky API";
+    }
+
+    /**
+     * Save the raw response - a failed write must not lose the fetch
+     */
+    private void record(String body) {
+        try {
+            Path dir = Files.createDirectories(Paths.get(recordDir));
+            Path file = dir.resolve("states-" + System.currentTimeMillis() / 1000 + ".json");
+            Path temp = dir.resolve(file.getFileName() + ".tmp");
+            Files.writeString(temp, body);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            logger.warn("⚠️ Could not record OpenSky response: {}", e.getMessage());
+        }
+    }
+}
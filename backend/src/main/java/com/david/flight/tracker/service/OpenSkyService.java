@@ -6,16 +6,12 @@ import com.david.flight.tracker.repository.FlightStateRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,21 +21,49 @@ public class OpenSkyService {
     private static final int MAX_RETRIES = 3;
     private static final long RETRY_DELAY_MS = 5000; // 5 seconds
 
-    @Value("${opensky.api.url}")
-    private String openSkyApiUrl;
+    // Returned when another fetch on this node has not finished yet
+    public static final int FETCH_IN_PROGRESS = -1;
 
     @Autowired
     private FlightStateRepository flightStateRepository;
 
+    // Live API, recorded replay or synthetic generator (flights.source)
     @Autowired
-    private RestTemplate restTemplate;
+    private FlightDataSource flightDataSource;
+
+    @Autowired
+    private IngestCycleService ingestCycleService;
+
+    @Autowired
+    private AircraftMetadataService aircraftMetadataService;
+
+    @Autowired
+    private FlightStateParser flightStateParser;
+
+    @Autowired(required = false)
+    private List<FlightIngestListener> ingestListeners = List.of();
+
+    // Shared by the scheduled, admin and test fetches so two never overlap
+    private final ReentrantLock fetchLock = new ReentrantLock();
 
     /**
      * Fetch flight data from OpenSky API with retry logic and duplicate prevention
-     * @return Number of flights saved
+     * @return Number of flights saved, or FETCH_IN_PROGRESS if another fetch is still running
      */
     public int fetchAndSaveFlights() {
-        logger.info("Fetching flight data from OpenSky API...");
+        if (!fetchLock.tryLock()) {
+            logger.info("Fetch already in progress - skipping");
+            return FETCH_IN_PROGRESS;
+        }
+        try {
+            return fetchWithRetries();
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    private int fetchWithRetries() {
+        logger.info("Fetching flight data from {}...", flightDataSource.getName());
 
         for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
             try {
@@ -67,28 +91,32 @@ public class OpenSkyService {
     /**
      * Perform the actual fetch and save operation
      */
-    private int performFetch() {
-        // Call OpenSky API
-        OpenSkyResponse response = restTemplate.getForObject(
-                openSkyApiUrl,
-                OpenSkyResponse.class
-        );
+    private int performFetch() throws Exception {
+        OpenSkyResponse response = flightDataSource.fetchStates();
 
         if (response == null || response.getStates() == null) {
-            logger.warn("No data received from OpenSky API");
+            logger.warn("No data received from {}", flightDataSource.getName());
             return 0;
         }
 
-        logger.info("Received {} flights from OpenSky API", response.getStates().size());
+        logger.info("Received {} flights from {}", response.getStates().size(), flightDataSource.getName());
 
-        // Convert to FlightState entities
-        List<FlightState> flightStates = parseFlightData(response);
+        // Convert to FlightState entities - malformed records are counted by the parser, not thrown
+        long rejectedBefore = flightStateParser.getRejectedCount();
+        List<FlightState> flightStates = flightStateParser.parse(response.getStates());
+        long rejected = flightStateParser.getRejectedCount() - rejectedBefore;
+        if (rejected > 0) {
+            logger.warn("Rejected {} malformed state vectors", rejected);
+        }
 
         if (flightStates.isEmpty()) {
             logger.warn("No valid flights after parsing");
             return 0;
         }
 
+        // Type, registration and operator from the aircraft database
+        aircraftMetadataService.enrich(flightStates);
+
         // Delete ONLY positions with the exact same timestamp (current fetch)
         // This prevents exact duplicates while keeping historical trail data
        //  LocalDateTime currentFetchTime = LocalDateTime.now();
@@ -102,11 +130,28 @@ public class OpenSkyService {
 
         // Save new data
         flightStateRepository.saveAll(flightStates);
+        ingestCycleService.completeIngestCycle();
 
         logger.info("Successfully saved {} flights to database", flightStates.size());
+
+        notifyIngestListeners(flightStates);
         return flightStates.size();
     }
 
+    /**
+     * Hand the saved batch to downstream processing
+     * A failing listener must not fail the fetch - that would retry and save the batch twice
+     */
+    private void notifyIngestListeners(List<FlightState> flightStates) {
+        for (FlightIngestListener listener : ingestListeners) {
+            try {
+                listener.onFlightsIngested(flightStates);
+            } catch (Exception e) {
+                logger.error("Ingest listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
     /**
      * Delete recent records for the same aircraft to prevent duplicates
      * Only deletes records from the last 5 minutes for aircraft we're about to update
@@ -126,129 +171,4 @@ public class OpenSkyService {
 
         return deleted;
     }
-
-    /**
-     * Parse OpenSky response into FlightState entities
-     */
-    private List<FlightState> parseFlightData(OpenSkyResponse response) {
-        List<FlightState> flightStates = new ArrayList<>();
-
-        for (List<Object> state : response.getStates()) {
-            try {
-                FlightState flight = parseFlightState(state);
-                if (flight != null) {
-                    flightStates.add(flight);
-                }
-            } catch (Exception e) {
-                // Log but don't fail entire batch for one bad record
-                logger.debug("Error parsing flight state: {}", e.getMessage());
-            }
-        }
-
-        return flightStates;
-    }
-
-    /**
-     * Parse a single flight state array into FlightState object
-     *
-     * OpenSky array format:
-     * [0]  icao24          - string
-     * [1]  callsign        - string
-     * [2]  origin_country  - string
-     * [3]  time_position   - int (unix timestamp)
-     * [4]  last_contact    - int (unix timestamp)
-     * [5]  longitude       - double
-     * [6]  latitude        - double
-     * [7]  baro_altitude   - double (meters)
-     * [8]  on_ground       - boolean
-     * [9]  velocity        - double (m/s)
-     * [10] true_track      - double (heading in degrees)
-     * [11] vertical_rate   - double (m/s)
-     */
-    private FlightState parseFlightState(List<Object> state) {
-        // Must have at least 12 elements
-        if (state.size() < 12) {
-            return null;
-        }
-
-        // Skip if latitude or longitude is null (aircraft not transmitting position)
-        if (state.get(5) == null || state.get(6) == null) {
-            return null;
-        }
-
-        FlightState flight = new FlightState();
-
-        // Required fields
-        flight.setIcao24(getString(state.get(0)));
-        flight.setLatitude(getDouble(state.get(6)));
-        flight.setLongitude(getDouble(state.get(5)));
-        flight.setOnGround(getBoolean(state.get(8)));
-
-        // Optional fields
-        flight.setCallsign(cleanString(getString(state.get(1))));
-        flight.setOriginCountry(getString(state.get(2)));
-        flight.setAltitude(getDouble(state.get(7)));
-        flight.setVelocity(getDouble(state.get(9)));
-        flight.setHeading(getDouble(state.get(10)));
-        flight.setVerticalRate(getDouble(state.get(11)));
-
-        // Timestamp - use last_contact (index 4)
-        Long lastContact = getLong(state.get(4));
-        if (lastContact != null) {
-            flight.setTimestamp(
-                    LocalDateTime.ofInstant(
-                            Instant.ofEpochSecond(lastContact),
-                            ZoneId.systemDefault()
-                    )
-            );
-        } else {
-            flight.setTimestamp(LocalDateTime.now());
-        }
-
-        return flight;
-    }
-
-    // ===================================================================
-    // HELPER METHODS - Safely parse values from OpenSky API response
-    // ===================================================================
-
-    private String getString(Object value) {
-        return value != null ? value.toString() : null;
-    }
-
-    private String cleanString(String value) {
-        return value != null ? value.trim() : null;
-    }
-
-    private Double getDouble(Object value) {
-        if (value == null) return null;
-        if (value instanceof Number) {
-            return ((Number) value).doubleValue();
-        }
-        try {
-            return Double.parseDouble(value.toString());
-        } catch (NumberFormatException e) {
-            return null;
-        }
-    }
-
-    private Boolean getBoolean(Object value) {
-        if (value == null) return false;
-        if (value instanceof Boolean) {
-            return (Boolean) value;
-        }
-        return Boolean.parseBoolean(value.toString());
-    }
-
-    private Long getLong(Object value) {
-        if (value == null) return null;
-        if (value instanceof Number) {
-            return ((Number) value).longValue();
-        }
-        try {
-            return Long.parseLong(value.toString());
-        } catch (NumberFormatException e) {
-            return null;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,162 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.dto.OpenSkyResponse;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Replays /states/all captures recorded by OpenSkyHttpSource (states-<epochSeconds>.json).
+ *
+ * Recorded time runs at flights.source.replay.speed times wall-clock time from the first
+ * fetch; each fetch returns the latest capture at that point, with its timestamps shifted
+ * to now so the rest of the app treats it as live data.
+ */
+@Service
+@ConditionalOnProperty(name = "flights.source", havingValue = "replay")
+public class ReplayFlightSource implements FlightDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayFlightSource.class);
+    private static final Pattern CAPTURE_FILE = Pattern.compile("states-(\\d+)\\.json");
+
+    @Value("${flights.source.replay.dir:recordings}")
+    private String replayDir;
+
+    @Value("${flights.source.replay.speed:1.0}")
+    private double speed;
+
+    // Start again from the first capture after the last one
+    @Value("${flights.source.replay.loop:true}")
+    private boolean loop;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    private final List<Capture> captures = new ArrayList<>();
+    private long replayStartMillis = -1;
+    private boolean finishedLogged = false;
+
+    private record Capture(long time, Path file) {
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path dir = Paths.get(replayDir);
+        if (!Files.isDirectory(dir)) {
+            logger.warn("⚠️ Replay directory {} does not exist - no data will be ingested", dir.toAbsolutePath());
+            return;
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(file -> {
+                Matcher matcher = CAPTURE_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    captures.add(new Capture(Long.parseLong(matcher.group(1)), file));
+                }
+            });
+        }
+        captures.sort(Comparator.comparingLong(Capture::time));
+
+        if (captures.isEmpty()) {
+            logger.warn("⚠️ No captures in replay directory {}", dir.toAbsolutePath());
+        } else {
+            logger.info("⏯️ Replaying {} captures ({}s of recording) from {} at {}x",
+                    captures.size(), span(), dir.toAbsolutePath(), speed);
+        }
+    }
+
+    @Override
+    public synchronized OpenSkyResponse fetchStates() throws IOException {
+        if (captures.isEmpty()) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (replayStartMillis < 0) {
+            replayStartMillis = now;
+        }
+
+        // Seconds of recorded time that have passed
+        long elapsed = (long) ((now - replayStartMillis) / 1000.0 * speed);
+        if (elapsed > span()) {
+            if (!loop) {
+                if (!finishedLogged) {
+                    logger.info("⏹️ Replay finished");
+                    finishedLogged = true;
+                }
+                return null;
+            }
+            elapsed %= span() + 1;
+        }
+
+        Capture capture = latestAt(captures.get(0).time() + elapsed);
+        OpenSkyResponse response = jsonMapper.readValue(capture.file().toFile(), OpenSkyResponse.class);
+        shiftToNow(response, now / 1000 - capture.time());
+        return response;
+    }
+
+    @Override
+    public String getName() {
+        return "replay";
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private long span() {
+        return captures.get(captures.size() - 1).time() - captures.get(0).time();
+    }
+
+    /**
+     * Last capture taken at or before the given recorded time
+     */
+    private Capture latestAt(long time) {
+        int low = 0;
+        int high = captures.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (captures.get(mid).time() <= time) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return captures.get(low);
+    }
+
+    /**
+     * Move time_position [3] and last_contact [4] of every state by the same offset
+     */
+    private static void shiftToNow(OpenSkyResponse response, long shiftSeconds) {
+        if (response.getTime() != null) {
+            response.setTime(response.getTime() + shiftSeconds);
+        }
+        if (response.getStates() == null) {
+            return;
+        }
+        for (List<Object> state : response.getStates()) {
+            for (int i = 3; i <= 4 && i < state.size(); i++) {
+                if (state.get(i) instanceof Number time) {
+                    state.set(i, time.longValue() + shiftSeconds);
+                }
+            }
+        }
+    }
+}
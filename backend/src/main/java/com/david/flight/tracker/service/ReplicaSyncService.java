@@ -0,0 +1,119 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.model.entity.FlightState;
+import com.david.flight.tracker.repository.FlightStateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps the in-memory ingest state of follower nodes in step with the leader.
+ *
+ * Only the leader ingests, so on other nodes the event processor, geofence memberships,
+ * nearby index and live store would otherwise stay empty. When the data version moves
+ * (NOTIFY from the leader) this reads the rows written since the last sync in id order
+ * and hands them to the ingest listeners as a replicated batch - listeners update their
+ * state but do not broadcast, the leader already did that through the broker relay.
+ */
+@Service
+public class ReplicaSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaSyncService.class);
+
+    @Value("${cluster.replica-sync.page-size:5000}")
+    private int pageSize;
+
+    // How far back a node that just became a follower reads to rebuild its state
+    @Value("${cluster.replica-sync.bootstrap-minutes:15}")
+    private long bootstrapMinutes;
+
+    @Autowired
+    private FlightStateRepository flightStateRepository;
+
+    @Autowired
+    private IngestCycleService ingestCycleService;
+
+    @Autowired
+    private IngestLeaderService ingestLeaderService;
+
+    @Autowired(required = false)
+    private List<FlightIngestListener> ingestListeners = List.of();
+
+    // Last row handed to the listeners (-1 = not synced since becoming a follower)
+    private long lastReplicatedId = -1;
+    private long syncedVersion = -1;
+    private volatile long rowsReplicated = 0;
+
+    @Scheduled(fixedDelayString = "${cluster.replica-sync.interval:1000}")
+    public synchronized void syncFromLeader() {
+        // The leader feeds its listeners directly (also true when leader election is off)
+        if (ingestLeaderService.isLeader()) {
+            lastReplicatedId = -1;
+            syncedVersion = -1;
+            return;
+        }
+
+        long version = ingestCycleService.getCurrentVersion();
+        if (version == syncedVersion) {
+            return;
+        }
+
+        try {
+            if (lastReplicatedId < 0) {
+                Long firstId = flightStateRepository.findFirstIdAfter(LocalDateTime.now().minusMinutes(bootstrapMinutes));
+                Long maxId = flightStateRepository.findMaxId();
+                lastReplicatedId = firstId != null ? firstId - 1 : (maxId != null ? maxId : 0);
+                logger.info("🔁 Follower sync starting after row {}", lastReplicatedId);
+            }
+
+            int rows = 0;
+            Slice<FlightState> page;
+            do {
+                page = flightStateRepository.findByIdGreaterThanOrderByIdAsc(lastReplicatedId, PageRequest.of(0, pageSize));
+                List<FlightState> flights = page.getContent();
+                if (flights.isEmpty()) {
+                    break;
+                }
+                notifyListeners(flights);
+                lastReplicatedId = flights.get(flights.size() - 1).getId();
+                rows += flights.size();
+            } while (page.hasNext());
+
+            syncedVersion = version;
+            rowsReplicated += rows;
+            if (rows > 0) {
+                logger.info("🔁 Replicated {} positions from the leader (version {})", rows, version);
+            }
+        } catch (Exception e) {
+            // Retried on the next poll from the same row
+            logger.error("❌ Follower sync failed: {}", e.getMessage());
+        }
+    }
+
+    public long getRowsReplicated() {
+        return rowsReplicated;
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private void notifyListeners(List<FlightState> flights) {
+        for (FlightIngestListener listener : ingestListeners) {
+            try {
+                listener.onFlightsReplicated(flights);
+            } catch (Exception e) {
+                logger.error("Ingest listener {} failed on replicated batch: {}",
+                        listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
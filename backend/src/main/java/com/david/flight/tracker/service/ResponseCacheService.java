@@ -0,0 +1,190 @@
+package com.david.flight.tracker.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches serialised (and gzipped) JSON responses per ingest cycle version.
+ * Conditional requests are answered from the version alone, so a 304 never touches the database.
+ */
+@Service
+public class ResponseCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheService.class);
+
+    @Autowired
+    private IngestCycleService ingestCycleService;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Value("${flights.cache.max-entries:1000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<String, CompletableFuture<CachedResponse>> cache = new ConcurrentHashMap<>();
+
+    private volatile long cachedVersion = -1;
+
+    private record CachedResponse(long version, byte[] body, byte[] gzipBody) {
+    }
+
+    /**
+     * Serve a cached response for the current data version
+     * @param key Cache key, unique per endpoint and parameters
+     * @param request Incoming request (for If-None-Match and Accept-Encoding)
+     * @param loader Builds the response body on a cache miss
+     */
+    public ResponseEntity<byte[]> serve(String key, HttpServletRequest request, Supplier<Object> loader) {
+        // Read the version before loading so data is never tagged newer than it is
+        long version = ingestCycleService.getCurrentVersion();
+        boolean gzip = acceptsGzip(request);
+
+        String etag = etag(key, version, false);
+        String gzipEtag = etag(key, version, true);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(CacheControl.maxAge(ingestCycleService.getSecondsUntilNextCycle(), TimeUnit.SECONDS)
+                .mustRevalidate());
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        headers.setETag(gzip ? gzipEtag : etag);
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag, gzipEtag)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        CachedResponse cached = lookup(key, version, loader);
+
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(cached.gzipBody(), headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(cached.body(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * Number of responses currently cached
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private CachedResponse lookup(String key, long version, Supplier<Object> loader) {
+        if (version > cachedVersion) {
+            // New ingest cycle - everything cached so far is stale
+            synchronized (this) {
+                if (version > cachedVersion) {
+                    cache.clear();
+                    cachedVersion = version;
+                }
+            }
+        } else if (version < cachedVersion) {
+            // A newer cycle landed mid-request - don't pollute the cache with old data
+            return build(version, loader);
+        }
+
+        CompletableFuture<CachedResponse> entry = cache.get(key);
+        if (entry == null) {
+            if (cache.size() >= maxEntries) {
+                logger.debug("Response cache full ({} entries), serving {} uncached", maxEntries, key);
+                return build(version, loader);
+            }
+
+            // Only the placeholder is created inside the map - the load itself runs outside it,
+            // so a slow query never holds a map bin and concurrent misses wait on one future
+            CompletableFuture<CachedResponse> created = new CompletableFuture<>();
+            entry = cache.computeIfAbsent(key, k -> created);
+            if (entry == created) {
+                load(key, created, version, loader);
+            }
+        }
+
+        CachedResponse cached = await(entry);
+        if (cached.version() < version) {
+            // Loaded for an older cycle that was still running when this one started
+            cache.remove(key, entry);
+            return build(version, loader);
+        }
+        return cached;
+    }
+
+    private void load(String key, CompletableFuture<CachedResponse> future, long version, Supplier<Object> loader) {
+        try {
+            future.complete(build(version, loader));
+        } catch (Throwable e) {
+            // Let waiters see the failure and the next request try again
+            cache.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private CachedResponse await(CompletableFuture<CachedResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private CachedResponse build(long version, Supplier<Object> loader) {
+        byte[] body = jsonMapper.writeValueAsBytes(loader.get());
+        return new CachedResponse(version, body, gzip(body));
+    }
+
+    private byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private String etag(String key, long version, boolean gzip) {
+        return "\"" + Integer.toHexString(key.hashCode()) + "-" + version + (gzip ? "-gz" : "") + "\"";
+    }
+
+    private boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    private boolean matches(String ifNoneMatch, String etag, String gzipEtag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
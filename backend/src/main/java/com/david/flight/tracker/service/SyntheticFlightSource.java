@@ -0,0 +1,194 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.dto.OpenSkyResponse;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates N aircraft (up to 200k) flying great-circle routes between random points.
+ *
+ * Positions are worked out from elapsed time on every fetch, so any fetch rate gives a
+ * consistent picture. An aircraft that reaches its destination picks a new one from there.
+ * The same seed always produces the same fleet, which keeps load tests repeatable.
+ */
+@Service
+@ConditionalOnProperty(name = "flights.source", havingValue = "synthetic")
+public class SyntheticFlightSource implements FlightDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticFlightSource.class);
+
+    static final int MAX_AIRCRAFT = 200_000;
+
+    private static final String[] COUNTRIES = {
+            "United States", "United Kingdom", "Germany", "France", "China",
+            "Japan", "Brazil", "Australia", "India", "Canada"
+    };
+
+    @Value("${flights.source.synthetic.aircraft:10000}")
+    private int aircraftCount;
+
+    @Value("${flights.source.synthetic.seed:42}")
+    private long seed;
+
+    private Random random;
+
+    // Per aircraft: route start / end as unit vectors, angle between them, speed and departure time
+    private double[] ax, ay, az, bx, by, bz;
+    private double[] routeAngle;
+    private double[] speed;
+    private double[] altitude;
+    private long[] departedMillis;
+
+    @PostConstruct
+    public void init() {
+        if (aircraftCount > MAX_AIRCRAFT) {
+            logger.warn("⚠️ Synthetic aircraft capped at {} (asked for {})", MAX_AIRCRAFT, aircraftCount);
+            aircraftCount = MAX_AIRCRAFT;
+        }
+
+        random = new Random(seed);
+        ax = new double[aircraftCount];
+        ay = new double[aircraftCount];
+        az = new double[aircraftCount];
+        bx = new double[aircraftCount];
+        by = new double[aircraftCount];
+        bz = new double[aircraftCount];
+        routeAngle = new double[aircraftCount];
+        speed = new double[aircraftCount];
+        altitude = new double[aircraftCount];
+        departedMillis = new long[aircraftCount];
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < aircraftCount; i++) {
+            speed[i] = 200 + random.nextDouble() * 60;
+            altitude[i] = 9000 + random.nextInt(7) * 500;
+
+            double[] start = randomPoint();
+            ax[i] = start[0];
+            ay[i] = start[1];
+            az[i] = start[2];
+            newRoute(i, now);
+
+            // Spread the fleet along their routes instead of all departing at once
+            departedMillis[i] = now - (long) (random.nextDouble() * routeMillis(i));
+        }
+
+        logger.info("🧪 Synthetic source: {} aircraft (seed {})", aircraftCount, seed);
+    }
+
+    @Override
+    public synchronized OpenSkyResponse fetchStates() {
+        long now = System.currentTimeMillis();
+        long epochSeconds = now / 1000;
+        List<List<Object>> states = new ArrayList<>(aircraftCount);
+
+        for (int i = 0; i < aircraftCount; i++) {
+            if (now - departedMillis[i] >= routeMillis(i)) {
+                // Arrived - start the next leg from the destination
+                ax[i] = bx[i];
+                ay[i] = by[i];
+                az[i] = bz[i];
+                newRoute(i, now);
+            }
+
+            double fraction = (now - departedMillis[i]) / (double) routeMillis(i);
+            double[] position = slerp(i, fraction);
+            double lat = Math.toDegrees(Math.asin(position[2]));
+            double lon = Math.toDegrees(Math.atan2(position[1], position[0]));
+            double heading = bearing(lat, lon, Math.toDegrees(Math.asin(bz[i])), Math.toDegrees(Math.atan2(by[i], bx[i])));
+
+            states.add(Arrays.<Object>asList(
+                    String.format("%06x", 0x100000 + i),
+                    "S" + i,
+                    COUNTRIES[i % COUNTRIES.length],
+                    epochSeconds,
+                    epochSeconds,
+                    lon,
+                    lat,
+                    altitude[i],
+                    false,
+                    speed[i],
+                    heading,
+                    0.0
+            ));
+        }
+
+        OpenSkyResponse response = new OpenSkyResponse();
+        response.setTime(epochSeconds);
+        response.setStates(states);
+        return response;
+    }
+
+    @Override
+    public String getName() {
+        return "synthetic";
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    /**
+     * Pick a destination 500-8000 km away from the current start point
+     */
+    private void newRoute(int i, long now) {
+        double angle;
+        double[] end;
+        do {
+            end = randomPoint();
+            double dot = ax[i] * end[0] + ay[i] * end[1] + az[i] * end[2];
+            angle = Math.acos(Math.max(-1, Math.min(1, dot)));
+        } while (angle * GeoHash.EARTH_RADIUS_KM < 500 || angle * GeoHash.EARTH_RADIUS_KM > 8000);
+
+        bx[i] = end[0];
+        by[i] = end[1];
+        bz[i] = end[2];
+        routeAngle[i] = angle;
+        departedMillis[i] = now;
+    }
+
+    private long routeMillis(int i) {
+        return (long) (routeAngle[i] * GeoHash.EARTH_RADIUS_KM * 1000 / speed[i] * 1000);
+    }
+
+    /**
+     * Random point between 70°S and 70°N as a unit vector
+     */
+    private double[] randomPoint() {
+        double lat = Math.toRadians(-70 + random.nextDouble() * 140);
+        double lon = Math.toRadians(-180 + random.nextDouble() * 360);
+        return new double[]{Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+    }
+
+    /**
+     * Point a fraction of the way along the great circle from a to b
+     */
+    private double[] slerp(int i, double fraction) {
+        double omega = routeAngle[i];
+        double sinOmega = Math.sin(omega);
+        double wa = Math.sin((1 - fraction) * omega) / sinOmega;
+        double wb = Math.sin(fraction * omega) / sinOmega;
+        return new double[]{wa * ax[i] + wb * bx[i], wa * ay[i] + wb * by[i], wa * az[i] + wb * bz[i]};
+    }
+
+    /**
+     * Initial great-circle bearing in degrees (0 = north)
+     */
+    private static double bearing(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double y = Math.sin(dLon) * Math.cos(phi2);
+        double x = Math.cos(phi1) * Math.sin(phi2) - Math.sin(phi1) * Math.cos(phi2) * Math.cos(dLon);
+        return (Math.toDegrees(Math.atan2(y, x)) + 360) % 360;
+    }
+}
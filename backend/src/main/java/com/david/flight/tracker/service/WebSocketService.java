@@ -1,5 +1,7 @@
 package com.david.flight.tracker.service;
 
+import com.david.flight.tracker.dto.FlightEvent;
+import com.david.flight.tracker.dto.GeofenceEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +11,7 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -16,6 +19,12 @@ public class WebSocketService {
 
     private static final Logger logger = LoggerFactory.getLogger(WebSocketService.class);
 
+    /**
+     * STOMP header marking messages that supersede earlier ones with the same value.
+     * Queued messages for a session are dropped once a newer one with the same key arrives.
+     */
+    public static final String CONFLATION_KEY_HEADER = "conflation-key";
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
@@ -85,6 +94,102 @@ public class WebSocketService {
         }
     }
 
+    /**
+     * Send events detected by the stream processor (takeoffs, landings, anomalies)
+     */
+    public void broadcastFlightEvents(List<FlightEvent> events) {
+        try {
+            Map<String, Object> message = new HashMap<>();
+            message.put("type", "FLIGHT_EVENTS");
+            message.put("events", events);
+            message.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+            messagingTemplate.convertAndSend("/topic/flight-events", (Object) message);
+
+            messagesSent++;
+            logger.info("🛬 Flight events broadcast: {} events", events.size());
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to broadcast flight events: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Send live airborne counts per origin country and region
+     */
+    public void broadcastAirspaceCounts(Map<String, Integer> byCountry, Map<String, Integer> byRegion) {
+        try {
+            Map<String, Object> message = new HashMap<>();
+            message.put("type", "AIRSPACE_COUNTS");
+            message.put("byCountry", byCountry);
+            message.put("byRegion", byRegion);
+            message.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+            messagingTemplate.convertAndSend("/topic/airspace-counts", (Object) message);
+
+            messagesSent++;
+            logger.debug("🗺️ Airspace counts broadcast sent");
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to broadcast airspace counts: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Send geofence ENTER / EXIT events to the fence's own topic
+     */
+    public void broadcastGeofenceEvents(Long geofenceId, List<GeofenceEvent> events) {
+        try {
+            Map<String, Object> message = new HashMap<>();
+            message.put("type", "GEOFENCE_EVENTS");
+            message.put("geofenceId", geofenceId);
+            message.put("events", events);
+            message.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+            messagingTemplate.convertAndSend("/topic/geofences/" + geofenceId, (Object) message);
+
+            messagesSent++;
+            logger.debug("🚧 Geofence {} broadcast: {} events", geofenceId, events.size());
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to broadcast geofence events: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Send admin job progress to /topic/admin-jobs
+     * Conflated per job, so a slow client only gets the latest progress of each job
+     */
+    public void broadcastAdminJob(String jobId, Map<String, Object> job) {
+        try {
+            Map<String, Object> headers = new HashMap<>();
+            headers.put(CONFLATION_KEY_HEADER, "admin-job-" + jobId);
+
+            messagingTemplate.convertAndSend("/topic/admin-jobs", job, headers);
+            messagesSent++;
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to broadcast admin job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    /**
+     * Send a per-aircraft update to /topic/aircraft
+     * Only the latest queued update per aircraft is delivered to a slow client
+     */
+    public void broadcastAircraftUpdate(String icao24, Object payload) {
+        try {
+            Map<String, Object> headers = new HashMap<>();
+            headers.put(CONFLATION_KEY_HEADER, icao24);
+
+            messagingTemplate.convertAndSend("/topic/aircraft", payload, headers);
+            messagesSent++;
+
+        } catch (Exception e) {
+            logger.error("❌ Failed to broadcast aircraft update: {}", e.getMessage());
+        }
+    }
+
     /**
      * Get statistics about WebSocket service
      */
@@ -0,0 +1,229 @@
+package com.david.flight.tracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches the client outbound channel per WebSocket session.
+ *
+ * - Tracks how many messages are queued for each session
+ * - Conflates messages carrying a conflation key: a queued update is dropped
+ *   if a newer one for the same key (e.g. same aircraft) is already behind it
+ * - Disconnects sessions whose queue stays above the limit for several checks
+ *
+ * Sessions closed by the transport's send buffer / time limits are counted as slow
+ * consumers too, alongside the ones this monitor disconnects.
+ */
+@Component
+public class WebSocketSessionMonitor implements ExecutorChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketSessionMonitor.class);
+
+    @Value("${websocket.slow-consumer.queue-depth:200}")
+    private int slowQueueDepth;
+
+    @Value("${websocket.slow-consumer.max-strikes:3}")
+    private int maxStrikes;
+
+    private final Map<String, SessionStats> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong conflatedDropped = new AtomicLong();
+    private final AtomicLong slowConsumersDisconnected = new AtomicLong();
+
+    private static class SessionStats {
+        final WebSocketSession session;
+        final AtomicInteger queueDepth = new AtomicInteger();
+        final AtomicLong delivered = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        final Map<String, Message<?>> latestByKey = new ConcurrentHashMap<>();
+        volatile int maxQueueDepth;
+        volatile int strikes;
+
+        SessionStats(WebSocketSession session) {
+            this.session = session;
+        }
+    }
+
+    // ===================================================================
+    // SESSION LIFECYCLE - called from the WebSocket handler decorator
+    // ===================================================================
+
+    public void register(WebSocketSession session) {
+        sessions.put(session.getId(), new SessionStats(session));
+    }
+
+    public void unregister(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+        // Both the send limits and disconnect() close slow sessions with this status
+        if (status.getCode() == CloseStatus.SESSION_NOT_RELIABLE.getCode()) {
+            slowConsumersDisconnected.incrementAndGet();
+        }
+    }
+
+    // ===================================================================
+    // OUTBOUND CHANNEL INTERCEPTOR
+    // ===================================================================
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SessionStats stats = statsFor(message);
+        if (stats == null) {
+            return message;
+        }
+
+        int depth = stats.queueDepth.incrementAndGet();
+        if (depth > stats.maxQueueDepth) {
+            stats.maxQueueDepth = depth;
+        }
+
+        String key = conflationKey(message);
+        if (key != null) {
+            stats.latestByKey.put(key, message);
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // Rejected by the executor - it will never reach beforeHandle
+        if (!sent) {
+            SessionStats stats = statsFor(message);
+            if (stats != null) {
+                stats.queueDepth.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        SessionStats stats = statsFor(message);
+        if (stats == null) {
+            return message;
+        }
+        stats.queueDepth.decrementAndGet();
+
+        String key = conflationKey(message);
+        if (key != null && !stats.latestByKey.remove(key, message)) {
+            // A newer update for the same key is queued behind this one
+            stats.dropped.incrementAndGet();
+            conflatedDropped.incrementAndGet();
+            return null;
+        }
+
+        stats.delivered.incrementAndGet();
+        return message;
+    }
+
+    // ===================================================================
+    // SLOW CONSUMER CHECK
+    // ===================================================================
+
+    /**
+     * Disconnect sessions that stay backed up for several consecutive checks
+     */
+    @Scheduled(fixedDelayString = "${websocket.slow-consumer.check-interval:5000}")
+    public void checkSlowConsumers() {
+        for (SessionStats stats : sessions.values()) {
+            if (stats.queueDepth.get() <= slowQueueDepth) {
+                stats.strikes = 0;
+                continue;
+            }
+
+            stats.strikes++;
+            if (stats.strikes >= maxStrikes) {
+                disconnect(stats);
+            }
+        }
+    }
+
+    private void disconnect(SessionStats stats) {
+        logger.warn("🐢 Disconnecting slow WebSocket consumer {} | Queue depth: {}",
+                stats.session.getId(), stats.queueDepth.get());
+        try {
+            stats.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            logger.debug("Error closing slow session {}: {}", stats.session.getId(), e.getMessage());
+        }
+        sessions.remove(stats.session.getId());
+    }
+
+    // ===================================================================
+    // METRICS
+    // ===================================================================
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public long getConflatedDropped() {
+        return conflatedDropped.get();
+    }
+
+    public long getSlowConsumersDisconnected() {
+        return slowConsumersDisconnected.get();
+    }
+
+    public int getTotalQueueDepth() {
+        int total = 0;
+        for (SessionStats stats : sessions.values()) {
+            total += stats.queueDepth.get();
+        }
+        return total;
+    }
+
+    /**
+     * Per-session queue statistics, deepest queue first
+     */
+    public List<Map<String, Object>> getSessionStats(int limit) {
+        List<SessionStats> sorted = new ArrayList<>(sessions.values());
+        sorted.sort((a, b) -> Integer.compare(b.queueDepth.get(), a.queueDepth.get()));
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (SessionStats stats : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("sessionId", stats.session.getId());
+            entry.put("queueDepth", stats.queueDepth.get());
+            entry.put("maxQueueDepth", stats.maxQueueDepth);
+            entry.put("delivered", stats.delivered.get());
+            entry.put("conflatedDropped", stats.dropped.get());
+            entry.put("strikes", stats.strikes);
+            result.add(entry);
+        }
+        return result;
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private SessionStats statsFor(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        return sessionId != null ? sessions.get(sessionId) : null;
+    }
+
+    private String conflationKey(Message<?> message) {
+        String key = NativeMessageHeaderAccessor.getFirstNativeHeader(
+                WebSocketService.CONFLATION_KEY_HEADER, message.getHeaders());
+        return key != null ? SimpMessageHeaderAccessor.getDestination(message.getHeaders()) + "|" + key : null;
+    }
+}
@@ -0,0 +1,163 @@
+package com.david.flight.tracker;
+
+import com.david.flight.tracker.service.FlightEventProcessor;
+import com.david.flight.tracker.service.IngestCycleService;
+import com.david.flight.tracker.service.IngestLeaderService;
+import com.david.flight.tracker.service.NearbyFlightIndex;
+import com.david.flight.tracker.service.OpenSkyService;
+import com.david.flight.tracker.service.WebSocketService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.JacksonJsonMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two backend nodes against the broker and database from compose.yaml:
+ * broadcasts on one node reach clients of the other through the STOMP relay, data
+ * versions follow NOTIFY, and the advisory lock fails over when the leader stops.
+ *
+ * Run with: docker compose up -d && mvn test -Pcluster-tests
+ */
+@Tag("cluster")
+class ClusterIntegrationTest {
+
+    private static final int AIRCRAFT = 200;
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private final List<StompSession> sessions = new ArrayList<>();
+
+    @AfterEach
+    void stopNodes() {
+        sessions.forEach(session -> {
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        });
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void broadcastsFanOutAndLeadershipFailsOver() throws Exception {
+        ConfigurableApplicationContext nodeA = startNode();
+        IngestLeaderService leaderA = nodeA.getBean(IngestLeaderService.class);
+        assertTrue(leaderA.isLeader(), "First node should take the advisory lock");
+
+        ConfigurableApplicationContext nodeB = startNode();
+        IngestLeaderService leaderB = nodeB.getBean(IngestLeaderService.class);
+        assertFalse(leaderB.isLeader(), "Second node must not get the lock while the first holds it");
+
+        // A broadcast from node A reaches a client connected to node B
+        List<Object> receivedOnB = new CopyOnWriteArrayList<>();
+        StompSession session = connect(nodeB);
+        session.subscribe("/topic/notifications", new CollectingHandler(receivedOnB));
+
+        String marker = "fan-out-" + UUID.randomUUID();
+        WebSocketService webSocketA = nodeA.getBean(WebSocketService.class);
+        await("Broadcast from node A did not reach node B's client", () -> {
+            webSocketA.broadcastNotification(marker, "INFO");
+            return receivedOnB.stream().anyMatch(message -> String.valueOf(message).contains(marker));
+        });
+
+        // A data change on the leader moves the follower's version via NOTIFY
+        long version = nodeA.getBean(IngestCycleService.class).invalidate();
+        IngestCycleService cycleB = nodeB.getBean(IngestCycleService.class);
+        await("Follower did not pick up the leader's data version", () -> cycleB.getCurrentVersion() >= version);
+
+        // An ingest on the leader rebuilds the follower's in-memory state from the database
+        assertTrue(nodeA.getBean(OpenSkyService.class).fetchAndSaveFlights() > 0);
+        FlightEventProcessor eventsB = nodeB.getBean(FlightEventProcessor.class);
+        await("Follower's event processor was not fed the leader's batch", () -> eventsB.getTrackedAircraft() >= AIRCRAFT);
+        assertTrue(nodeB.getBean(NearbyFlightIndex.class).size() > 0, "Follower's nearby index is empty");
+
+        // Stopping the leader closes its session, releasing the lock for node B
+        nodeA.close();
+        nodes.remove(nodeA);
+        await("Follower did not take over leadership", leaderB::isLeader);
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private ConfigurableApplicationContext startNode() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FlighttrackerApplication.class)
+                .profiles("cluster")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + env("CLUSTER_TEST_DB_URL", "jdbc:postgresql://localhost:5433/flighttracker"),
+                        "spring.datasource.username=" + env("CLUSTER_TEST_DB_USER", "postgres"),
+                        "spring.datasource.password=" + env("CLUSTER_TEST_DB_PASSWORD", "postgres"),
+                        // Own lock key so a locally running cluster is not disturbed
+                        "cluster.leader-election.lock-key=727299",
+                        "cluster.notify.poll-interval=200",
+                        "flights.source=synthetic",
+                        "flights.source.synthetic.aircraft=" + AIRCRAFT,
+                        "flights.snapshot.enabled=false",
+                        "scheduler.fetch.initial-delay=3600000")
+                .run();
+        nodes.add(context);
+        return context;
+    }
+
+    private StompSession connect(ConfigurableApplicationContext node) throws Exception {
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new JacksonJsonMessageConverter());
+
+        WebSocketHttpHeaders handshakeHeaders = new WebSocketHttpHeaders();
+        handshakeHeaders.setOrigin("http://localhost:3000");
+        String port = node.getEnvironment().getProperty("local.server.port");
+
+        StompSession session = stompClient
+                .connectAsync("ws://localhost:" + port + "/ws-flights/websocket", handshakeHeaders,
+                        new StompSessionHandlerAdapter() { })
+                .get(10, TimeUnit.SECONDS);
+        sessions.add(session);
+        return session;
+    }
+
+    private static void await(String failure, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, failure);
+            Thread.sleep(250);
+        }
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null ? value : fallback;
+    }
+
+    private record CollectingHandler(List<Object> received) implements StompFrameHandler {
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Map.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            received.add(payload);
+        }
+    }
+}
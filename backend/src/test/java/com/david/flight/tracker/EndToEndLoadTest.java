@@ -0,0 +1,185 @@
+package com.david.flight.tracker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.test.LocalServerPort;
+import org.springframework.messaging.converter.JacksonJsonMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Offline end-to-end throughput run: the synthetic source feeds the normal ingest path
+ * while REST clients poll /current (with ETags, like the frontend) and STOMP clients
+ * listen for flight updates. Prints request rate and latency percentiles.
+ *
+ * Run with: mvn test -Pload-tests
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "flights.source=synthetic",
+        "flights.source.synthetic.aircraft=20000",
+        "scheduler.fetch.delay=10000",
+        "scheduler.fetch.initial-delay=1000",
+        "flights.snapshot.enabled=false"
+})
+class EndToEndLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(EndToEndLoadTest.class);
+
+    private static final int REST_CLIENTS = 32;
+    private static final int STOMP_CLIENTS = 200;
+    private static final long DURATION_MS = 60_000;
+
+    @LocalServerPort
+    private int port;
+
+    private final List<StompSession> sessions = new ArrayList<>();
+
+    @AfterEach
+    void disconnect() {
+        sessions.forEach(session -> {
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        });
+    }
+
+    @Test
+    void servesRestAndStompClientsWhileIngesting() throws Exception {
+        AtomicInteger[] updatesPerClient = connectStompClients();
+
+        HttpClient http = HttpClient.newHttpClient();
+        URI current = URI.create("http://localhost:" + port + "/api/flights/current");
+        AtomicLong errors = new AtomicLong();
+        AtomicLong notModified = new AtomicLong();
+        AtomicLong bodiesWithFlights = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(REST_CLIENTS);
+        long end = System.currentTimeMillis() + DURATION_MS;
+        List<Future<long[]>> results = new ArrayList<>();
+
+        for (int c = 0; c < REST_CLIENTS; c++) {
+            results.add(pool.submit(() -> {
+                long[] latencies = new long[1 << 16];
+                int count = 0;
+                String etag = null;
+
+                while (System.currentTimeMillis() < end) {
+                    HttpRequest.Builder request = HttpRequest.newBuilder(current).GET();
+                    if (etag != null) {
+                        request.header("If-None-Match", etag);
+                    }
+
+                    long start = System.nanoTime();
+                    HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                    long micros = (System.nanoTime() - start) / 1000;
+
+                    if (response.statusCode() == 304) {
+                        notModified.incrementAndGet();
+                    } else if (response.statusCode() == 200) {
+                        etag = response.headers().firstValue("ETag").orElse(null);
+                        if (response.body().length > 2) {
+                            bodiesWithFlights.incrementAndGet();
+                        }
+                    } else {
+                        errors.incrementAndGet();
+                    }
+
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = micros;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+
+        List<long[]> perClient = new ArrayList<>();
+        for (Future<long[]> result : results) {
+            perClient.add(result.get(DURATION_MS * 2, TimeUnit.MILLISECONDS));
+        }
+        pool.shutdown();
+
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        int minUpdates = Arrays.stream(updatesPerClient).mapToInt(AtomicInteger::get).min().orElse(0);
+
+        logger.info("REST: {} requests in {}s ({} req/s), {} not modified | latency p50 {} µs, p99 {} µs, max {} µs",
+                all.length, DURATION_MS / 1000, all.length * 1000 / DURATION_MS, notModified.get(),
+                percentile(all, 0.50), percentile(all, 0.99), all.length > 0 ? all[all.length - 1] : 0);
+        logger.info("STOMP: {} clients, fewest flight updates received by one client: {}", STOMP_CLIENTS, minUpdates);
+
+        assertEquals(0, errors.get(), "REST errors");
+        assertTrue(bodiesWithFlights.get() > 0, "No /current response contained flights");
+        assertTrue(minUpdates >= 2, "Every STOMP client should see several ingest cycles");
+    }
+
+    private AtomicInteger[] connectStompClients() throws Exception {
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new JacksonJsonMessageConverter());
+
+        WebSocketHttpHeaders handshakeHeaders = new WebSocketHttpHeaders();
+        handshakeHeaders.setOrigin("http://localhost:3000");
+        String url = "ws://localhost:" + port + "/ws-flights/websocket";
+
+        AtomicInteger[] updatesPerClient = new AtomicInteger[STOMP_CLIENTS];
+        for (int i = 0; i < STOMP_CLIENTS; i++) {
+            AtomicInteger updates = new AtomicInteger();
+            updatesPerClient[i] = updates;
+
+            StompSession session = stompClient
+                    .connectAsync(url, handshakeHeaders, new StompSessionHandlerAdapter() { })
+                    .get(10, TimeUnit.SECONDS);
+            session.subscribe("/topic/flight-updates", new CountingHandler(updates));
+            sessions.add(session);
+        }
+        return updatesPerClient;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+    }
+
+    private record CountingHandler(AtomicInteger updates) implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Map.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            updates.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.david.flight.tracker;
+
+import com.david.flight.tracker.service.FlightExportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Exports a few million rows with the small heap set by the load-tests profile (-Xmx256m).
+ * Loading that many entities would need several GB - streaming must keep memory flat.
+ *
+ * Run with: mvn test -Pload-tests
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+        "scheduler.fetch.initial-delay=3600000",
+        "history.rollup.initial-delay=3600000"
+})
+class ExportLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportLoadTest.class);
+
+    private static final int ROWS = 3_000_000;
+
+    // Well away from live data so the test rows are easy to find and remove
+    private static final LocalDateTime FROM = LocalDateTime.of(2001, 1, 1, 0, 0);
+    private static final LocalDateTime TO = FROM.plusSeconds(ROWS);
+
+    private static final String HEADER = "id,icao24,callsign,origin_country,timestamp,latitude,longitude,altitude,"
+            + "velocity,heading,vertical_rate,on_ground,registration,aircraft_type,aircraft_model,operator";
+    private static final int SAMPLE_EVERY = 100_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private FlightExportService flightExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM flight_states WHERE timestamp >= ? AND timestamp < ?", FROM, TO);
+    }
+
+    @Test
+    void exportsMillionsOfRowsWithConstantMemory() throws Exception {
+        jdbcTemplate.update("""
+                INSERT INTO flight_states (icao24, callsign, origin_country, latitude, longitude, altitude,
+                                           velocity, heading, vertical_rate, on_ground, timestamp, created_at)
+                SELECT lpad(to_hex(n % 50000), 6, '0'), 'TST' || (n % 9000), 'Korea, Republic of',
+                       (n % 180) - 90, (n % 360) - 180, 10000, 230, n % 360, 0, false,
+                       ?::timestamp + n * interval '1 second', now()
+                FROM generate_series(0, ? - 1) AS n
+                """, FROM, ROWS);
+
+        Path file = tempDir.resolve("export.csv.gz");
+        long exported;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            exported = flightExportService.exportCsv(FROM, TO, out, true);
+        }
+        assertEquals(ROWS, exported);
+
+        // Read the file back a line at a time - holding it in memory would defeat the test
+        long lines = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            assertEquals(HEADER, reader.readLine());
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (lines % SAMPLE_EVERY == 0 || lines == ROWS - 1) {
+                    assertEquals(expectedRow(lines), line.substring(line.indexOf(',') + 1), "Row " + lines);
+                }
+                lines++;
+            }
+        }
+        assertEquals(ROWS, lines);
+
+        Runtime runtime = Runtime.getRuntime();
+        logger.info("Exported {} rows as {} KB of gzipped CSV with {} MB of {} MB heap in use",
+                exported, Files.size(file) >> 10, (runtime.totalMemory() - runtime.freeMemory()) >> 20, runtime.maxMemory() >> 20);
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    /**
+     * Row n as generated by the insert above, without the id column
+     */
+    private static String expectedRow(long n) {
+        return String.join(",",
+                String.format("%06x", n % 50000),
+                "TST" + (n % 9000),
+                "\"Korea, Republic of\"",
+                FROM.plusSeconds(n).toString(),
+                Double.toString(n % 180 - 90),
+                Double.toString(n % 360 - 180),
+                "10000.0", "230.0",
+                Double.toString(n % 360),
+                "0.0", "false", "", "", "", "");
+    }
+}
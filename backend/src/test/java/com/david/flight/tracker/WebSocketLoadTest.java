@@ -0,0 +1,195 @@
+package com.david.flight.tracker;
+
+import com.david.flight.tracker.service.WebSocketService;
+import com.david.flight.tracker.service.WebSocketSessionMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.test.LocalServerPort;
+import org.springframework.messaging.converter.JacksonJsonMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hundreds of local STOMP clients, a few of them stalled (they stop reading).
+ * Fast clients must always end up with the latest update for every aircraft, superseded
+ * updates must be conflated, and the stalled clients must be disconnected.
+ *
+ * Run with: mvn test -Pload-tests
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // Small enough that a stalled client overflows it once its socket buffers are full
+        "websocket.send-buffer-size-limit=1048576",
+        "websocket.send-time-limit=5000",
+        // A stalled session can hold an outbound thread until it is closed
+        "websocket.outbound.pool-size=16",
+        "websocket.slow-consumer.queue-depth=5000",
+        "websocket.slow-consumer.max-strikes=3",
+        "websocket.slow-consumer.check-interval=500",
+        "scheduler.fetch.initial-delay=3600000"
+})
+class WebSocketLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketLoadTest.class);
+
+    private static final int CLIENTS = 200;
+    private static final int SLOW_CLIENTS = 5;
+    private static final int AIRCRAFT = 200;
+    private static final int ROUNDS = 30;
+
+    // ~4 KB per update (under the client's 8 KB frame buffer): ~24 MB per client, far more
+    // than a stalled client's socket buffers plus its server-side send buffer can hold
+    private static final String PADDING = "x".repeat(4000);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private WebSocketSessionMonitor sessionMonitor;
+
+    private final List<StompSession> sessions = new ArrayList<>();
+
+    // Stalled clients block on this until the test ends
+    private final CountDownLatch resume = new CountDownLatch(1);
+
+    @AfterEach
+    void disconnect() {
+        resume.countDown();
+        sessions.forEach(session -> {
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        });
+    }
+
+    @Test
+    void fastClientsReceiveLatestUpdateWhileStalledClientsAreDropped() throws Exception {
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new JacksonJsonMessageConverter());
+
+        WebSocketHttpHeaders handshakeHeaders = new WebSocketHttpHeaders();
+        handshakeHeaders.setOrigin("http://localhost:3000");
+        String url = "ws://localhost:" + port + "/ws-flights/websocket";
+
+        List<Map<String, Integer>> latestPerClient = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            boolean stalled = i < SLOW_CLIENTS;
+            Map<String, Integer> latest = new ConcurrentHashMap<>();
+            latestPerClient.add(latest);
+
+            StompSession session = stompClient
+                    .connectAsync(url, handshakeHeaders, new StompSessionHandlerAdapter() { })
+                    .get(10, TimeUnit.SECONDS);
+            session.subscribe("/topic/aircraft", new RecordingHandler(latest, stalled ? resume : null));
+            sessions.add(session);
+        }
+
+        // Wait until every subscription is live on the broker
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (latestPerClient.stream().anyMatch(latest -> !latest.containsKey("warmup"))) {
+            assertTrue(System.currentTimeMillis() < deadline, "Subscriptions did not become active");
+            webSocketService.broadcastAircraftUpdate("warmup", Map.of("icao24", "warmup", "seq", 0));
+            Thread.sleep(100);
+        }
+
+        long conflatedBefore = sessionMonitor.getConflatedDropped();
+        long disconnectedBefore = sessionMonitor.getSlowConsumersDisconnected();
+
+        long start = System.nanoTime();
+        for (int round = 1; round <= ROUNDS; round++) {
+            for (int a = 0; a < AIRCRAFT; a++) {
+                String icao24 = String.format("%06x", a);
+                webSocketService.broadcastAircraftUpdate(icao24, Map.of("icao24", icao24, "seq", round, "padding", PADDING));
+            }
+        }
+
+        // Fast clients must converge on the final round for every aircraft
+        deadline = System.currentTimeMillis() + 60_000;
+        List<Map<String, Integer>> fastClients = latestPerClient.subList(SLOW_CLIENTS, CLIENTS);
+        while (!fastClients.stream().allMatch(WebSocketLoadTest::hasFinalRound)) {
+            assertTrue(System.currentTimeMillis() < deadline, "Fast clients did not receive the final updates");
+            Thread.sleep(100);
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        logger.info("Delivered {} updates to {} clients in {} ms - conflated {}, slow consumers disconnected {}, queued {}",
+                AIRCRAFT * ROUNDS, CLIENTS, elapsedMs,
+                sessionMonitor.getConflatedDropped(),
+                sessionMonitor.getSlowConsumersDisconnected(),
+                sessionMonitor.getTotalQueueDepth());
+
+        for (Map<String, Integer> latest : fastClients) {
+            assertEquals(AIRCRAFT + 1, latest.size());
+        }
+
+        // The broadcast outran delivery, so superseded updates were dropped instead of queued
+        assertTrue(sessionMonitor.getConflatedDropped() > conflatedBefore, "No updates were conflated");
+
+        // Every stalled client overflows its send buffer and is closed as a slow consumer
+        deadline = System.currentTimeMillis() + 60_000;
+        while (sessionMonitor.getSlowConsumersDisconnected() - disconnectedBefore < SLOW_CLIENTS) {
+            assertTrue(System.currentTimeMillis() < deadline, "Stalled clients were not disconnected: "
+                    + (sessionMonitor.getSlowConsumersDisconnected() - disconnectedBefore) + " of " + SLOW_CLIENTS);
+            Thread.sleep(100);
+        }
+        assertEquals(CLIENTS - SLOW_CLIENTS, sessionMonitor.getSessionCount());
+    }
+
+    private static boolean hasFinalRound(Map<String, Integer> latest) {
+        if (latest.size() < AIRCRAFT + 1) {
+            return false;
+        }
+        return latest.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals("warmup"))
+                .allMatch(entry -> entry.getValue() == ROUNDS);
+    }
+
+    /**
+     * Keeps the latest seq per aircraft; a stalled handler stops after its first frame until resume opens
+     */
+    private record RecordingHandler(Map<String, Integer> latest, CountDownLatch resume) implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Map.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            Map<?, ?> update = (Map<?, ?>) payload;
+            latest.put((String) update.get("icao24"), ((Number) update.get("seq")).intValue());
+
+            if (resume != null && !update.get("icao24").equals("warmup")) {
+                try {
+                    resume.await(2, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
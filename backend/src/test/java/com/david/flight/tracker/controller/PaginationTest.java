@@ -0,0 +1,85 @@
+package com.david.flight.tracker.controller;
+
+import com.david.flight.tracker.dto.FlightPage;
+import com.david.flight.tracker.model.entity.FlightState;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaginationTest {
+
+    @Test
+    void parsesFormat() {
+        assertFalse(Pagination.isNdjson(null));
+        assertFalse(Pagination.isNdjson("JSON"));
+        assertTrue(Pagination.isNdjson("ndjson"));
+        assertBadRequest(() -> Pagination.isNdjson("xml"));
+    }
+
+    @Test
+    void validatesPageSize() {
+        assertEquals(Pagination.DEFAULT_PAGE_SIZE, Pagination.pageSize(null));
+        assertEquals(1, Pagination.pageSize(1));
+        assertEquals(Pagination.MAX_PAGE_SIZE, Pagination.pageSize(Pagination.MAX_PAGE_SIZE));
+        assertBadRequest(() -> Pagination.pageSize(0));
+        assertBadRequest(() -> Pagination.pageSize(Pagination.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void parsesIdCursor() {
+        assertEquals(0, Pagination.idCursor(null));
+        assertEquals(123456789012L, Pagination.idCursor("123456789012"));
+        assertBadRequest(() -> Pagination.idCursor("raw~2024-06-01T12:00~5"));
+    }
+
+    @Test
+    void idCursorContinuesAfterTheLastRowOfASlice() {
+        FlightPage first = FlightPage.of(new SliceImpl<>(List.of(flight(3, "a"), flight(7, "b")), PageRequest.of(0, 2), true),
+                flight -> flight.getId().toString());
+        assertEquals("7", first.getNextCursor());
+        assertEquals(7, Pagination.idCursor(first.getNextCursor()));
+
+        FlightPage last = FlightPage.of(new SliceImpl<>(List.of(flight(9, "c")), PageRequest.of(0, 2), false),
+                flight -> flight.getId().toString());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void extraRowOnlySignalsAnotherPage() {
+        List<FlightState> rows = List.of(flight(1, "3c6444"), flight(2, "4ca7b4"), flight(3, "a1b2c3"));
+
+        FlightPage page = FlightPage.of(rows, 2, FlightState::getIcao24);
+        assertEquals(2, page.getItems().size());
+        assertEquals("4ca7b4", page.getNextCursor());
+
+        FlightPage exact = FlightPage.of(rows, 3, FlightState::getIcao24);
+        assertEquals(3, exact.getItems().size());
+        assertNull(exact.getNextCursor());
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private static void assertBadRequest(Runnable call) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, call::run);
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    private static FlightState flight(long id, String icao24) {
+        FlightState flight = new FlightState();
+        flight.setId(id);
+        flight.setIcao24(icao24);
+        return flight;
+    }
+}
@@ -0,0 +1,180 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.repository.FlightStateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdminJobServiceTest {
+
+    private static final int BATCH = 10;
+
+    private FlightStateRepository flightStateRepository;
+    private OpenSkyService openSkyService;
+    private IngestCycleService ingestCycleService;
+    private FlightHistoryService flightHistoryService;
+    private IngestLeaderService ingestLeaderService;
+    private AdminJobService service;
+
+    @BeforeEach
+    void setUp() {
+        flightStateRepository = mock(FlightStateRepository.class);
+        openSkyService = mock(OpenSkyService.class);
+        ingestCycleService = mock(IngestCycleService.class);
+        flightHistoryService = mock(FlightHistoryService.class);
+        ingestLeaderService = mock(IngestLeaderService.class);
+
+        // Everything compacted up to now - the requested cutoff applies
+        when(flightHistoryService.getRawCleanupCutoff()).thenAnswer(invocation -> LocalDateTime.now());
+        when(ingestLeaderService.isLeader()).thenReturn(true);
+
+        service = new AdminJobService();
+        ReflectionTestUtils.setField(service, "flightStateRepository", flightStateRepository);
+        ReflectionTestUtils.setField(service, "openSkyService", openSkyService);
+        ReflectionTestUtils.setField(service, "ingestCycleService", ingestCycleService);
+        ReflectionTestUtils.setField(service, "webSocketService", mock(WebSocketService.class));
+        ReflectionTestUtils.setField(service, "flightHistoryService", flightHistoryService);
+        ReflectionTestUtils.setField(service, "ingestLeaderService", ingestLeaderService);
+        ReflectionTestUtils.setField(service, "deleteBatchSize", BATCH);
+        ReflectionTestUtils.setField(service, "historySize", 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void runsOneJobPerKind() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(flightStateRepository.countByTimestampBefore(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 0L;
+        });
+
+        AdminJobService.Submission first = service.submit(AdminJobService.Kind.CLEANUP, 24);
+        AdminJobService.Submission second = service.submit(AdminJobService.Kind.CLEANUP, 24);
+        assertTrue(first.started());
+        assertFalse(second.started());
+        assertSame(first.job(), second.job());
+
+        // Other kinds are not held up by it
+        assertTrue(service.submit(AdminJobService.Kind.CLEAR_ALL, 0).started());
+
+        release.countDown();
+        assertEquals(AdminJobService.Status.SUCCEEDED, awaitFinished(first.job()));
+        verify(flightStateRepository, times(1)).deleteBatchByTimestampBefore(any(), anyInt());
+    }
+
+    @Test
+    void deletesBatchesUntilOneComesBackShort() throws Exception {
+        when(flightStateRepository.deleteBatchByTimestampBefore(any(), anyInt())).thenReturn(BATCH, BATCH, 3);
+
+        AdminJobService.AdminJob job = service.submit(AdminJobService.Kind.CLEANUP, 24).job();
+
+        assertEquals(AdminJobService.Status.SUCCEEDED, awaitFinished(job));
+        verify(flightStateRepository, times(3)).deleteBatchByTimestampBefore(any(), anyInt());
+        assertEquals(2L * BATCH + 3, job.describe().get("processed"));
+        verify(ingestCycleService, timeout(1000)).invalidate();
+    }
+
+    @Test
+    void cancelStopsBetweenBatches() throws Exception {
+        // Cancel while the first batch is running - the loop must not start a second one
+        when(flightStateRepository.deleteBatchByTimestampBefore(any(), anyInt())).thenAnswer(invocation -> {
+            service.cancel((String) service.getJobs().get(0).get("id"));
+            return BATCH;
+        });
+
+        AdminJobService.AdminJob job = service.submit(AdminJobService.Kind.CLEANUP, 24).job();
+
+        assertEquals(AdminJobService.Status.CANCELLED, awaitFinished(job));
+        verify(flightStateRepository, times(1)).deleteBatchByTimestampBefore(any(), anyInt());
+        assertEquals((long) BATCH, job.describe().get("processed"));
+        // The batch that did run still changed the data
+        verify(ingestCycleService, timeout(1000)).invalidate();
+    }
+
+    @Test
+    void cleanupNeverPassesTheCompactionCutoff() throws Exception {
+        LocalDateTime compacted = LocalDateTime.now().minusHours(48);
+        when(flightHistoryService.getRawCleanupCutoff()).thenReturn(compacted);
+
+        awaitFinished(service.submit(AdminJobService.Kind.CLEANUP, 1).job());
+        verify(flightStateRepository).countByTimestampBefore(compacted);
+        verify(flightStateRepository).deleteBatchByTimestampBefore(compacted, BATCH);
+    }
+
+    @Test
+    void cleanupUsesAnOlderRequestedCutoffAsGiven() throws Exception {
+        when(flightHistoryService.getRawCleanupCutoff()).thenReturn(LocalDateTime.now().minusHours(48));
+
+        awaitFinished(service.submit(AdminJobService.Kind.CLEANUP, 72).job());
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(flightStateRepository).countByTimestampBefore(cutoff.capture());
+        assertTrue(cutoff.getValue().isBefore(LocalDateTime.now().minusHours(71)));
+    }
+
+    @Test
+    void cleanupFailsBeforeTheFirstCompaction() throws Exception {
+        when(flightHistoryService.getRawCleanupCutoff()).thenReturn(null);
+
+        AdminJobService.AdminJob job = service.submit(AdminJobService.Kind.CLEANUP, 24).job();
+
+        assertEquals(AdminJobService.Status.FAILED, awaitFinished(job));
+        verify(flightStateRepository, never()).deleteBatchByTimestampBefore(any(), anyInt());
+    }
+
+    @Test
+    void rejectsNonPositiveHours() {
+        assertThrows(IllegalArgumentException.class, () -> service.submit(AdminJobService.Kind.CLEANUP, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.submit(AdminJobService.Kind.CLEANUP, -1));
+        assertTrue(service.getJobs().isEmpty());
+    }
+
+    @Test
+    void fetchOnlyRunsOnTheLeaderAndNeverOverlapsAnotherFetch() throws Exception {
+        when(ingestLeaderService.isLeader()).thenReturn(false);
+        assertThrows(IllegalStateException.class, () -> service.submit(AdminJobService.Kind.FETCH_NOW, 0));
+        verify(openSkyService, never()).fetchAndSaveFlights();
+
+        // On the leader, a fetch that finds the shared guard taken fails instead of running twice
+        when(ingestLeaderService.isLeader()).thenReturn(true);
+        when(openSkyService.fetchAndSaveFlights()).thenReturn(OpenSkyService.FETCH_IN_PROGRESS);
+        AdminJobService.AdminJob job = service.submit(AdminJobService.Kind.FETCH_NOW, 0).job();
+        assertEquals(AdminJobService.Status.FAILED, awaitFinished(job));
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private static AdminJobService.Status awaitFinished(AdminJobService.AdminJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (job.describe().get("status") == AdminJobService.Status.RUNNING) {
+            assertTrue(System.currentTimeMillis() < deadline, "Job did not finish");
+            Thread.sleep(10);
+        }
+        return (AdminJobService.Status) job.describe().get("status");
+    }
+}
@@ -0,0 +1,85 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.model.entity.FlightState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AircraftMetadataServiceTest {
+
+    private static final String HEADER = "\"icao24\",\"registration\",\"manufacturername\",\"model\",\"typecode\",\"operator\",\"owner\"\n";
+
+    @TempDir
+    Path tempDir;
+
+    private AircraftMetadataService service;
+
+    @AfterEach
+    void stop() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void loadsInTheBackgroundAndReloadsChangedFiles() throws Exception {
+        Path csv = tempDir.resolve("aircraftDatabase.csv");
+        Files.writeString(csv, HEADER + "\"4ca7b4\",\"EI-DCL\",\"Boeing\",\"737-8AS\",\"B738\",\"Ryanair\",\"\"\n");
+        service = service(csv);
+
+        service.start();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (service.getAircraftCount() == 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "Aircraft database was not loaded");
+            Thread.sleep(20);
+        }
+        assertEquals(1, service.getAircraftCount());
+
+        FlightState flight = new FlightState();
+        flight.setIcao24("4ca7b4");
+        service.enrich(List.of(flight));
+        assertEquals("EI-DCL", flight.getRegistration());
+        assertEquals("Ryanair", flight.getOperator());
+
+        // Same file - nothing to do; changed file - swapped in
+        service.reloadIfChanged();
+        assertEquals(1, service.getAircraftCount());
+        Files.writeString(csv, HEADER
+                + "\"4ca7b4\",\"EI-DCL\",\"Boeing\",\"737-8AS\",\"B738\",\"Ryanair\",\"\"\n"
+                + "\"400a0c\",\"G-EUPT\",\"Airbus\",\"A319-131\",\"A319\",\"\",\"\"\n");
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        service.reloadIfChanged();
+        assertEquals(2, service.getAircraftCount());
+    }
+
+    @Test
+    void missingFileLeavesEnrichmentOff() {
+        service = service(tempDir.resolve("missing.csv"));
+        service.reloadIfChanged();
+
+        FlightState flight = new FlightState();
+        flight.setIcao24("4ca7b4");
+        service.enrich(List.of(flight));
+        assertEquals(0, service.getAircraftCount());
+        assertNull(flight.getAircraftType());
+    }
+
+    private static AircraftMetadataService service(Path csv) {
+        AircraftMetadataService service = new AircraftMetadataService();
+        ReflectionTestUtils.setField(service, "metadataPath", csv.toString());
+        ReflectionTestUtils.setField(service, "expectedRows", 16);
+        // Long enough that only the initial load runs on the background thread
+        ReflectionTestUtils.setField(service, "checkIntervalMillis", 3_600_000L);
+        return service;
+    }
+}
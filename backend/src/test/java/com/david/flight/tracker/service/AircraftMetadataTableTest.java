@@ -0,0 +1,87 @@
+package com.david.flight.tracker.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AircraftMetadataTableTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AircraftMetadataTableTest.class);
+
+    private static AircraftMetadataTable load(String csv, int expectedRows) throws Exception {
+        return AircraftMetadataTable.load(new BufferedReader(new StringReader(csv)), expectedRows);
+    }
+
+    @Test
+    void readsColumnsByHeaderName() throws Exception {
+        AircraftMetadataTable table = load("""
+                "icao24","registration","manufacturername","model","typecode","operator","owner"
+                "4ca7b4","EI-DCL","Boeing","737-8AS","B738","Ryanair","Ryanair"
+                "400a0c","G-EUPT","Airbus","A319-131","A319","",""
+                "a1b2c3","N123AB","Cessna","172S Skyhawk, SP","C172","","John ""Jack"" Smith"
+                "zzzzzz","BAD","","","","",""
+                """, 2);
+
+        assertEquals(3, table.size());
+
+        int ryanair = table.find("4CA7B4");
+        assertEquals("EI-DCL", table.getRegistration(ryanair));
+        assertEquals("B738", table.getTypecode(ryanair));
+        assertEquals("Ryanair", table.getOperator(ryanair));
+
+        int noOperator = table.find("400a0c");
+        assertEquals("A319", table.getTypecode(noOperator));
+        assertNull(table.getOperator(noOperator));
+
+        // Quoted commas and escaped quotes, owner used when there is no operator
+        int cessna = table.find("a1b2c3");
+        assertEquals("172S Skyhawk, SP", table.getModel(cessna));
+        assertEquals("John \"Jack\" Smith", table.getOperator(cessna));
+
+        assertEquals(-1, table.find("abcdef"));
+        assertEquals(-1, table.find("not-hex"));
+    }
+
+    @Tag("load")
+    @Test
+    void lookupsStayUnderAMicrosecondFor600kAircraft() {
+        int aircraft = 600_000;
+        AircraftMetadataTable.Builder builder = new AircraftMetadataTable.Builder(aircraft);
+        String[] icao = new String[aircraft];
+        for (int i = 0; i < aircraft; i++) {
+            int key = (i * 7919) & 0xffffff;
+            icao[i] = String.format("%06x", key);
+            builder.put(key, "REG" + i, "T" + (i % 400), "Model " + (i % 3000), "Operator " + (i % 5000));
+        }
+        AircraftMetadataTable table = builder.build();
+
+        long found = 0;
+        for (int warmup = 0; warmup < 5; warmup++) {
+            for (String code : icao) {
+                found += table.find(code) >= 0 ? 1 : 0;
+            }
+        }
+
+        int lookups = 10_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            int slot = table.find(icao[i % aircraft]);
+            if (slot >= 0 && table.getTypecode(slot) != null) {
+                found++;
+            }
+        }
+        double nanosPerLookup = (System.nanoTime() - start) / (double) lookups;
+
+        logger.info("{} lookups over {} aircraft: {} ns each", lookups, table.size(), String.format("%.1f", nanosPerLookup));
+        assertEquals(aircraft, table.size());
+        assertTrue(nanosPerLookup < 1000, "Lookup took " + nanosPerLookup + " ns");
+    }
+}
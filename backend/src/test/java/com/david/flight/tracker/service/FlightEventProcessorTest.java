@@ -0,0 +1,164 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.dto.FlightEvent;
+import com.david.flight.tracker.model.entity.FlightState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class FlightEventProcessorTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private WebSocketService webSocketService;
+    private FlightEventProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        webSocketService = mock(WebSocketService.class);
+        processor = new FlightEventProcessor();
+        ReflectionTestUtils.setField(processor, "webSocketService", webSocketService);
+        ReflectionTestUtils.setField(processor, "steepDescentRate", -15.0);
+        ReflectionTestUtils.setField(processor, "velocityJump", 100.0);
+        ReflectionTestUtils.setField(processor, "headingJump", 30.0);
+        ReflectionTestUtils.setField(processor, "maxTurnRate", 6.0);
+        ReflectionTestUtils.setField(processor, "anomalyWindowSeconds", 300L);
+        ReflectionTestUtils.setField(processor, "staleSeconds", 900L);
+    }
+
+    @Test
+    void detectsTakeoffAndLanding() {
+        assertEquals(List.of(), ingest(flight("4ca7b4", 0, true, 0.0, 90.0, 0.0)));
+        assertEquals(List.of(FlightEvent.Type.TAKEOFF), ingest(flight("4ca7b4", 60, false, 80.0, 90.0, 10.0)));
+        assertEquals(List.of(FlightEvent.Type.LANDING), ingest(flight("4ca7b4", 120, true, 20.0, 90.0, 0.0)));
+    }
+
+    @Test
+    void reportsOnlyTheStartOfASteepDescent() {
+        ingest(flight("4ca7b4", 0, false, 200.0, 90.0, -5.0));
+        assertEquals(List.of(FlightEvent.Type.STEEP_DESCENT), ingest(flight("4ca7b4", 180, false, 200.0, 90.0, -20.0)));
+        assertEquals(List.of(), ingest(flight("4ca7b4", 360, false, 200.0, 90.0, -25.0)));
+    }
+
+    @Test
+    void flagsJumpsAtTheDefaultFetchInterval() {
+        ingest(flight("4ca7b4", 0, false, 200.0, 10.0, 0.0));
+
+        // 180 s apart, like the scheduled fetch - the speed jump is flagged, a reversal at 1 deg/s is not
+        assertEquals(List.of(FlightEvent.Type.VELOCITY_JUMP), ingest(flight("4ca7b4", 180, false, 320.0, 190.0, 0.0)));
+
+        // Contacts too far apart are not compared
+        ingest(flight("a1b2c3", 0, false, 200.0, 10.0, 0.0));
+        assertEquals(List.of(), ingest(flight("a1b2c3", 600, false, 400.0, 190.0, 0.0)));
+    }
+
+    @Test
+    void flagsOnlyTurnsFasterThanAnyAircraftFlies() {
+        // A 180° turn over two minutes (1.5 deg/s, a holding pattern end) is normal
+        ingest(flight("4ca7b4", 0, false, 200.0, 90.0, 0.0));
+        assertEquals(List.of(), ingest(flight("4ca7b4", 120, false, 200.0, 270.0, 0.0)));
+
+        // 90° in 10 s is 9 deg/s - faster than the 6 deg/s limit
+        ingest(flight("3c6444", 0, false, 200.0, 90.0, 0.0));
+        assertEquals(List.of(FlightEvent.Type.HEADING_JUMP), ingest(flight("3c6444", 10, false, 200.0, 180.0, 0.0)));
+
+        // Fast but small changes are noise; 350° -> 20° is a 30° turn across north, not 330°
+        ingest(flight("a1b2c3", 0, false, 200.0, 90.0, 0.0));
+        assertEquals(List.of(), ingest(flight("a1b2c3", 2, false, 200.0, 110.0, 0.0)));
+        ingest(flight("b2c3d4", 0, false, 200.0, 350.0, 0.0));
+        assertEquals(List.of(), ingest(flight("b2c3d4", 10, false, 200.0, 20.0, 0.0)));
+    }
+
+    @Test
+    void ignoresContactsThatAreNotNewer() {
+        ingest(flight("4ca7b4", 60, true, 0.0, 90.0, 0.0));
+        assertEquals(List.of(), ingest(flight("4ca7b4", 60, false, 80.0, 90.0, 0.0)));
+        assertEquals(List.of(FlightEvent.Type.TAKEOFF), ingest(flight("4ca7b4", 120, false, 80.0, 90.0, 0.0)));
+    }
+
+    @Test
+    void countsFollowAircraftAndExpireWhenStale() throws Exception {
+        ReflectionTestUtils.setField(processor, "staleSeconds", 1L);
+
+        FlightState dublin = flight("4ca7b4", 0, false, 200.0, 90.0, 0.0);
+        FlightState frankfurt = flight("3c6444", 0, false, 200.0, 90.0, 0.0);
+        frankfurt.setOriginCountry("Germany");
+        frankfurt.setLatitude(50.0);
+        frankfurt.setLongitude(8.6);
+        ingest(dublin, frankfurt);
+
+        assertEquals(Map.of("Ireland", 1, "Germany", 1), processor.getCountryCounts());
+        assertEquals(Map.of("N50W010", 1, "N50E000", 1), processor.getRegionCounts());
+
+        // Only Dublin reports again - Frankfurt ages out, Dublin is kept
+        Thread.sleep(1100);
+        ingest(flight("4ca7b4", 60, false, 200.0, 90.0, 0.0));
+
+        assertEquals(Map.of("Ireland", 1), processor.getCountryCounts());
+        assertEquals(Map.of("N50W010", 1), processor.getRegionCounts());
+        assertEquals(1, processor.getTrackedAircraft());
+
+        // Landing removes the aircraft from the airborne counts
+        ingest(flight("4ca7b4", 120, true, 0.0, 90.0, 0.0));
+        assertTrue(processor.getCountryCounts().isEmpty());
+    }
+
+    @Test
+    void replicatedBatchesUpdateStateWithoutBroadcasting() {
+        processor.onFlightsReplicated(List.of(flight("4ca7b4", 0, true, 0.0, 90.0, 0.0)));
+        processor.onFlightsReplicated(List.of(flight("4ca7b4", 60, false, 80.0, 90.0, 0.0)));
+
+        verify(webSocketService, never()).broadcastFlightEvents(any());
+        verify(webSocketService, never()).broadcastAirspaceCounts(any(), any());
+        assertFalse(processor.getCountryCounts().isEmpty());
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    @SuppressWarnings("unchecked")
+    private List<FlightEvent.Type> ingest(FlightState... flights) {
+        clearInvocations(webSocketService);
+        processor.onFlightsIngested(List.of(flights));
+
+        ArgumentCaptor<List<FlightEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(webSocketService, atMost(1)).broadcastFlightEvents(captor.capture());
+        return captor.getAllValues().stream()
+                .flatMap(List::stream)
+                .map(FlightEvent::getType)
+                .toList();
+    }
+
+    private static FlightState flight(String icao24, int secondsAfterT0, boolean onGround,
+                                      Double velocity, Double heading, Double verticalRate) {
+        FlightState flight = new FlightState();
+        flight.setIcao24(icao24);
+        flight.setCallsign("TEST1");
+        flight.setOriginCountry("Ireland");
+        flight.setLatitude(53.4);
+        flight.setLongitude(-6.2);
+        flight.setAltitude(onGround ? 0.0 : 10000.0);
+        flight.setOnGround(onGround);
+        flight.setVelocity(velocity);
+        flight.setHeading(heading);
+        flight.setVerticalRate(verticalRate);
+        flight.setTimestamp(T0.plusSeconds(secondsAfterT0));
+        return flight;
+    }
+}
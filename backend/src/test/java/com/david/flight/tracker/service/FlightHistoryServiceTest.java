@@ -0,0 +1,343 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.dto.FlightPage;
+import com.david.flight.tracker.model.entity.FlightState;
+import com.david.flight.tracker.model.entity.FlightStateRollup;
+import com.david.flight.tracker.model.entity.RegionHourlyStats;
+import com.david.flight.tracker.model.entity.RollupWatermark;
+import com.david.flight.tracker.repository.FlightStateRepository;
+import com.david.flight.tracker.repository.FlightStateRollupRepository;
+import com.david.flight.tracker.repository.RegionHourlyStatsRepository;
+import com.david.flight.tracker.repository.RollupWatermarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class FlightHistoryServiceTest {
+
+    private FlightStateRepository flightStateRepository;
+    private FlightStateRollupRepository rollupRepository;
+    private RegionHourlyStatsRepository regionHourlyStatsRepository;
+    private RollupWatermarkRepository watermarkRepository;
+    private IngestLeaderService ingestLeaderService;
+    private FlightHistoryService service;
+
+    @BeforeEach
+    void setUp() {
+        flightStateRepository = mock(FlightStateRepository.class);
+        rollupRepository = mock(FlightStateRollupRepository.class);
+        regionHourlyStatsRepository = mock(RegionHourlyStatsRepository.class);
+        watermarkRepository = mock(RollupWatermarkRepository.class);
+        ingestLeaderService = mock(IngestLeaderService.class);
+        when(ingestLeaderService.isLeader()).thenReturn(true);
+
+        service = new FlightHistoryService();
+        ReflectionTestUtils.setField(service, "flightStateRepository", flightStateRepository);
+        ReflectionTestUtils.setField(service, "rollupRepository", rollupRepository);
+        ReflectionTestUtils.setField(service, "regionHourlyStatsRepository", regionHourlyStatsRepository);
+        ReflectionTestUtils.setField(service, "watermarkRepository", watermarkRepository);
+        ReflectionTestUtils.setField(service, "ingestLeaderService", ingestLeaderService);
+        ReflectionTestUtils.setField(service, "rawRetentionHours", 24L);
+        ReflectionTestUtils.setField(service, "bucketMinutes", 5L);
+        ReflectionTestUtils.setField(service, "rollupRetentionDays", 30L);
+        ReflectionTestUtils.setField(service, "graceMinutes", 10L);
+        ReflectionTestUtils.setField(service, "maxHoursPerRun", 6L);
+    }
+
+    // ===================================================================
+    // CLEANUP CUTOFF
+    // ===================================================================
+
+    @Test
+    void keepsRawDataUntilBothTiersHaveCompacted() {
+        watermark(FlightHistoryService.ROLLUP_WATERMARK, LocalDateTime.now());
+        assertNull(service.getRawCleanupCutoff());
+
+        watermark(FlightHistoryService.HOURLY_WATERMARK, LocalDateTime.now());
+        LocalDateTime cutoff = service.getRawCleanupCutoff();
+        assertTrue(Duration.between(cutoff, LocalDateTime.now().minusHours(24)).abs().getSeconds() < 5,
+                "Fully compacted data is kept for the raw retention period");
+    }
+
+    @Test
+    void cleanupCutoffNeverPassesTheOldestWatermark() {
+        LocalDateTime behind = LocalDateTime.now().minusHours(30);
+        watermark(FlightHistoryService.ROLLUP_WATERMARK, LocalDateTime.now());
+        watermark(FlightHistoryService.HOURLY_WATERMARK, behind);
+
+        assertEquals(behind, service.getRawCleanupCutoff());
+    }
+
+    // ===================================================================
+    // COMPACTION
+    // ===================================================================
+
+    @Test
+    void compactsClosedBucketsUpToTheGracePeriod() {
+        LocalDateTime from = FlightHistoryService.floor(LocalDateTime.now().minusHours(1), Duration.ofHours(1));
+        watermark(FlightHistoryService.ROLLUP_WATERMARK, from);
+        watermark(FlightHistoryService.HOURLY_WATERMARK, LocalDateTime.now());
+
+        service.compact();
+
+        ArgumentCaptor<LocalDateTime> to = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(rollupRepository).compactRange(eq(from), to.capture(), eq("5 minutes"));
+        assertEquals(to.getValue(), FlightHistoryService.floor(to.getValue(), Duration.ofMinutes(5)));
+        assertFalse(to.getValue().isAfter(LocalDateTime.now().minusMinutes(10)), "Open buckets must wait for the grace period");
+        assertTrue(to.getValue().isAfter(LocalDateTime.now().minusMinutes(16)));
+        verify(watermarkRepository).save(new RollupWatermark(FlightHistoryService.ROLLUP_WATERMARK, to.getValue()));
+
+        // The hourly tier is up to date
+        verify(regionHourlyStatsRepository, never()).aggregateRange(any(), any());
+    }
+
+    @Test
+    void catchesUpAFewHoursPerRun() {
+        LocalDateTime from = FlightHistoryService.floor(LocalDateTime.now().minusDays(2), Duration.ofHours(1));
+        watermark(FlightHistoryService.ROLLUP_WATERMARK, from);
+        watermark(FlightHistoryService.HOURLY_WATERMARK, from);
+
+        service.compact();
+
+        verify(rollupRepository).compactRange(from, from.plusHours(6), "5 minutes");
+        verify(regionHourlyStatsRepository).aggregateRange(from, from.plusHours(6));
+        verify(watermarkRepository).save(new RollupWatermark(FlightHistoryService.HOURLY_WATERMARK, from.plusHours(6)));
+    }
+
+    @Test
+    void firstRunStartsAtTheOldestRawBucket() {
+        LocalDateTime oldest = LocalDateTime.now().minusHours(3).withMinute(7).withSecond(42).withNano(0);
+        when(watermarkRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(flightStateRepository.findOldestTimestamp()).thenReturn(oldest);
+
+        service.compact();
+
+        verify(rollupRepository).compactRange(eq(oldest.withMinute(5).withSecond(0)), any(), eq("5 minutes"));
+        verify(regionHourlyStatsRepository).aggregateRange(eq(oldest.withMinute(0).withSecond(0)), any());
+    }
+
+    @Test
+    void onlyTheLeaderCompacts() {
+        when(ingestLeaderService.isLeader()).thenReturn(false);
+
+        service.compact();
+
+        verifyNoInteractions(rollupRepository, regionHourlyStatsRepository, watermarkRepository);
+    }
+
+    @Test
+    void floorsToTheStartOfTheStep() {
+        LocalDateTime time = LocalDateTime.of(2024, 6, 1, 12, 7, 30);
+        assertEquals(LocalDateTime.of(2024, 6, 1, 12, 5), FlightHistoryService.floor(time, Duration.ofMinutes(5)));
+        assertEquals(LocalDateTime.of(2024, 6, 1, 12, 0), FlightHistoryService.floor(time, Duration.ofHours(1)));
+        assertEquals(LocalDateTime.of(2024, 6, 1, 12, 5), FlightHistoryService.floor(time.withMinute(5).withSecond(0), Duration.ofMinutes(5)));
+    }
+
+    // ===================================================================
+    // TIER ROUTING
+    // ===================================================================
+
+    @Test
+    void recentTrailsOnlyReadRawPositions() {
+        LocalDateTime since = LocalDateTime.now().minusHours(23).minusMinutes(59);
+        when(flightStateRepository.findFlightTrail("4ca7b4", since)).thenReturn(List.of(raw(1)));
+
+        assertEquals(1, service.getTrail("4ca7b4", since).size());
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void olderTrailsContinueInTheRollups() {
+        LocalDateTime since = LocalDateTime.now().minusHours(24).minusMinutes(1);
+        when(flightStateRepository.findFlightTrail(eq("4ca7b4"), any())).thenReturn(List.of(raw(1)));
+        FlightStateRollup rollup = rollup(since.plusSeconds(30));
+        when(rollupRepository.findTrail(eq("4ca7b4"), eq(since), any())).thenReturn(List.of(rollup));
+
+        List<FlightState> trail = service.getTrail("4ca7b4", since);
+
+        assertEquals(2, trail.size());
+        assertEquals(rollup.getTimestamp(), trail.get(1).getTimestamp());
+        // Older points keep the aircraft metadata the raw positions had
+        assertEquals("EI-DVM", trail.get(1).getRegistration());
+        assertEquals("B738", trail.get(1).getAircraftType());
+        assertEquals("Ryanair", trail.get(1).getOperator());
+
+        // Raw part starts where the rollups stop
+        ArgumentCaptor<LocalDateTime> rawStart = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(flightStateRepository).findFlightTrail(eq("4ca7b4"), rawStart.capture());
+        verify(rollupRepository).findTrail("4ca7b4", since, rawStart.getValue());
+    }
+
+    @Test
+    void regionStatsSplitAtTheHourlyWatermark() {
+        LocalDateTime from = LocalDateTime.of(2024, 6, 1, 0, 0);
+        LocalDateTime compacted = from.plusHours(10);
+        LocalDateTime to = from.plusHours(12);
+        watermark(FlightHistoryService.HOURLY_WATERMARK, compacted);
+        when(regionHourlyStatsRepository.aggregateRawRange(compacted, to)).thenReturn(List.<Object[]>of(
+                new Object[]{Timestamp.valueOf(compacted), 50, -10, 12L, 9L, 40L}));
+
+        List<RegionHourlyStats> stats = service.getRegionHourlyStats(from, to);
+
+        verify(regionHourlyStatsRepository).findByHourStartGreaterThanEqualAndHourStartLessThanOrderByHourStart(from, compacted);
+        assertEquals(1, stats.size());
+        assertEquals(compacted, stats.get(0).getHourStart());
+        assertEquals(50, stats.get(0).getLatCell());
+        assertEquals(40L, stats.get(0).getPositionCount());
+    }
+
+    @Test
+    void regionStatsUseOneTierWhenTheRangeIsOnOneSide() {
+        LocalDateTime from = LocalDateTime.of(2024, 6, 1, 0, 0);
+        LocalDateTime to = from.plusHours(12);
+
+        // Fully compacted
+        watermark(FlightHistoryService.HOURLY_WATERMARK, to.plusHours(1));
+        service.getRegionHourlyStats(from, to);
+        verify(regionHourlyStatsRepository).findByHourStartGreaterThanEqualAndHourStartLessThanOrderByHourStart(from, to);
+        verify(regionHourlyStatsRepository, never()).aggregateRawRange(any(), any());
+
+        // Nothing compacted yet
+        watermark(FlightHistoryService.HOURLY_WATERMARK, from.minusHours(1));
+        service.getRegionHourlyStats(from, to);
+        verify(regionHourlyStatsRepository).aggregateRawRange(from, to);
+    }
+
+    // ===================================================================
+    // TRAIL CURSORS
+    // ===================================================================
+
+    @Test
+    void rawPagesContinueFromTheLastTimestampAndId() {
+        LocalDateTime since = LocalDateTime.now().minusHours(2);
+        FlightState newer = raw(9);
+        FlightState older = raw(4);
+        older.setTimestamp(newer.getTimestamp().minusSeconds(180));
+        when(flightStateRepository.findFlightTrailBefore(eq("4ca7b4"), eq(since), any(), anyLong(), any()))
+                .thenReturn(new SliceImpl<>(List.of(newer, older), PageRequest.of(0, 2), true));
+
+        FlightPage first = service.getTrailPage("4ca7b4", since, null, 2);
+        assertEquals("raw~" + older.getTimestamp() + "~4", first.getNextCursor());
+
+        service.getTrailPage("4ca7b4", since, first.getNextCursor(), 2);
+        verify(flightStateRepository).findFlightTrailBefore("4ca7b4", since, older.getTimestamp(), 4L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void recentTrailPagesStopAtTheEndOfRawData() {
+        LocalDateTime since = LocalDateTime.now().minusHours(2);
+        when(flightStateRepository.findFlightTrailBefore(any(), any(), any(), anyLong(), any()))
+                .thenReturn(new SliceImpl<>(List.of(raw(1)), PageRequest.of(0, 2), false));
+
+        FlightPage page = service.getTrailPage("4ca7b4", since, null, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void trailPagesContinueAcrossTheRawToRollupBoundary() {
+        LocalDateTime since = LocalDateTime.now().minusDays(3);
+        when(flightStateRepository.findFlightTrailBefore(any(), any(), any(), anyLong(), any()))
+                .thenReturn(new SliceImpl<>(List.of(raw(1)), PageRequest.of(0, 3), false));
+        FlightStateRollup first = rollup(LocalDateTime.now().minusHours(25));
+        FlightStateRollup second = rollup(LocalDateTime.now().minusHours(26));
+        when(rollupRepository.findTrailBefore(eq("4ca7b4"), eq(since), any(), eq(PageRequest.of(0, 2))))
+                .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+
+        // The last raw row and the newest rollups share one page
+        FlightPage page = service.getTrailPage("4ca7b4", since, null, 3);
+        assertEquals(3, page.getItems().size());
+        assertEquals("rollup~" + second.getBucketStart(), page.getNextCursor());
+
+        // Raw rows are only read after the raw retention start, rollups only before it
+        ArgumentCaptor<LocalDateTime> rawStart = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(flightStateRepository).findFlightTrailBefore(eq("4ca7b4"), rawStart.capture(), any(), anyLong(), any());
+        verify(rollupRepository).findTrailBefore("4ca7b4", since, rawStart.getValue(), PageRequest.of(0, 2));
+
+        // A rollup cursor skips the raw tier
+        when(rollupRepository.findTrailBefore(eq("4ca7b4"), eq(since), eq(second.getBucketStart()), any()))
+                .thenReturn(new SliceImpl<>(List.of(rollup(second.getBucketStart().minusMinutes(5))), PageRequest.of(0, 3), false));
+        FlightPage last = service.getTrailPage("4ca7b4", since, page.getNextCursor(), 3);
+        assertEquals(1, last.getItems().size());
+        assertNull(last.getNextCursor());
+        verify(flightStateRepository).findFlightTrailBefore(any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void fullRawPageAtTheBoundaryHandsOverWithARollupCursor() {
+        LocalDateTime since = LocalDateTime.now().minusDays(3);
+        when(flightStateRepository.findFlightTrailBefore(any(), any(), any(), anyLong(), any()))
+                .thenReturn(new SliceImpl<>(List.of(raw(2), raw(1)), PageRequest.of(0, 2), false));
+
+        FlightPage page = service.getTrailPage("4ca7b4", since, null, 2);
+
+        ArgumentCaptor<LocalDateTime> rawStart = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(flightStateRepository).findFlightTrailBefore(any(), rawStart.capture(), any(), anyLong(), any());
+        assertEquals("rollup~" + rawStart.getValue(), page.getNextCursor());
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void rejectsMalformedTrailCursors() {
+        LocalDateTime since = LocalDateTime.now().minusHours(2);
+        for (String cursor : List.of("raw~2024-06-01T12:00", "rollup~yesterday", "raw~2024-06-01T12:00~x", "page~2")) {
+            assertThrows(IllegalArgumentException.class, () -> service.getTrailPage("4ca7b4", since, cursor, 10), cursor);
+        }
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private void watermark(String name, LocalDateTime value) {
+        when(watermarkRepository.findById(name)).thenReturn(Optional.of(new RollupWatermark(name, value)));
+    }
+
+    private static FlightStateRollup rollup(LocalDateTime bucketStart) {
+        FlightStateRollup rollup = new FlightStateRollup();
+        rollup.setIcao24("4ca7b4");
+        rollup.setRegistration("EI-DVM");
+        rollup.setAircraftType("B738");
+        rollup.setAircraftModel("Boeing 737-8AS");
+        rollup.setOperator("Ryanair");
+        rollup.setLatitude(53.0);
+        rollup.setLongitude(-6.0);
+        rollup.setBucketStart(bucketStart);
+        rollup.setTimestamp(bucketStart.plusMinutes(4));
+        return rollup;
+    }
+
+    private static FlightState raw(long id) {
+        FlightState flight = new FlightState();
+        flight.setId(id);
+        flight.setIcao24("4ca7b4");
+        flight.setTimestamp(LocalDateTime.now());
+        return flight;
+    }
+}
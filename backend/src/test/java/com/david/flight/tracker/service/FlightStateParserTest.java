@@ -0,0 +1,119 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.model.entity.FlightState;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightStateParserTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightStateParserTest.class);
+
+    private static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+    private static List<Object> state(Object icao24, Object lastContact, Object longitude, Object latitude) {
+        return Arrays.<Object>asList(icao24, "RYR12AB ", "Ireland", lastContact, lastContact,
+                longitude, latitude, 10972.8, false, 230.5, 92.0, 0.0);
+    }
+
+    @Test
+    void keepsOrderAndCountsRejectedRecords() {
+        FlightStateParser parser = new FlightStateParser(4, 1, LONDON);
+        List<List<Object>> states = new ArrayList<>();
+        states.add(state("4ca7b4", 1_700_000_000L, -6.2, 53.4));
+        states.add(state("400a0c", 1_700_000_000L, null, null));     // not transmitting a position
+        states.add(state(null, 1_700_000_000L, -1.0, 51.0));         // no icao24
+        states.add(state("a1b2c3", "not a time", "not a number", 51.0));
+        states.add(Arrays.<Object>asList("short", "row"));
+        states.add(state("3c6444", 1_700_000_100, 8.5, 50.0));
+
+        List<FlightState> flights = parser.parse(states);
+
+        assertEquals(List.of("4ca7b4", "3c6444"), flights.stream().map(FlightState::getIcao24).toList());
+        assertEquals("RYR12AB", flights.get(0).getCallsign());
+        assertEquals(2, parser.getParsedCount());
+        assertEquals(1, parser.getSkippedNoPositionCount());
+        assertEquals(3, parser.getRejectedCount());
+        parser.shutdown();
+    }
+
+    @Test
+    void convertsTimestampsAcrossDaylightSavingChanges() {
+        FlightStateParser parser = new FlightStateParser(1, Integer.MAX_VALUE, LONDON);
+
+        // Either side of the 2024 spring and autumn transitions, in and out of order
+        long[] seconds = {1711846799L, 1711846800L, 1730001600L, 1711846799L, 1730019600L, 1700000000L};
+        for (long second : seconds) {
+            assertEquals(LocalDateTime.ofInstant(Instant.ofEpochSecond(second), LONDON),
+                    parser.toLocalDateTime(second));
+        }
+        parser.shutdown();
+    }
+
+    @Tag("load")
+    @Test
+    void parseThroughputScalesWithCores() {
+        int records = 500_000;
+        Random random = new Random(42);
+        long now = Instant.now().getEpochSecond();
+        List<List<Object>> states = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            // Roughly what Jackson gives us - Integer timestamps, Double coordinates, ~5% without a position
+            boolean noPosition = random.nextInt(20) == 0;
+            states.add(Arrays.<Object>asList(String.format("%06x", 0x100000 + i), "S" + i + "   ", "Ireland",
+                    (int) now, (int) (now - random.nextInt(60)),
+                    noPosition ? null : random.nextDouble() * 360 - 180,
+                    noPosition ? null : random.nextDouble() * 180 - 90,
+                    random.nextDouble() * 12000, false, random.nextDouble() * 300,
+                    random.nextDouble() * 360, random.nextDouble() * 20 - 10));
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<FlightState> baseline = null;
+        double singleCoreMillis = 0;
+
+        for (int threads = 1; threads <= cores; threads = threads < cores ? Math.min(threads * 2, cores) : threads + 1) {
+            FlightStateParser parser = new FlightStateParser(threads, 0, ZoneId.systemDefault());
+            for (int warmup = 0; warmup < 5; warmup++) {
+                parser.parse(states);
+            }
+
+            int runs = 10;
+            List<FlightState> parsed = null;
+            long start = System.nanoTime();
+            for (int run = 0; run < runs; run++) {
+                parsed = parser.parse(states);
+            }
+            double millis = (System.nanoTime() - start) / 1_000_000.0 / runs;
+            parser.shutdown();
+
+            if (baseline == null) {
+                baseline = parsed;
+                singleCoreMillis = millis;
+            } else {
+                // Same rows in the same order whatever the thread count
+                assertEquals(baseline.size(), parsed.size());
+                for (int i = 0; i < parsed.size(); i += 997) {
+                    assertEquals(baseline.get(i).getIcao24(), parsed.get(i).getIcao24());
+                }
+            }
+
+            logger.info("Parsed {} records on {} thread(s) in {} ms ({}x single-threaded)",
+                    records, threads, String.format("%.1f", millis), String.format("%.2f", singleCoreMillis / millis));
+        }
+
+        assertTrue(baseline.size() > records * 0.9);
+    }
+}
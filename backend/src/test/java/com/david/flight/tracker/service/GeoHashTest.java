@@ -0,0 +1,67 @@
+package com.david.flight.tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class GeoHashTest {
+
+    private static final double KM_PER_DEGREE = Math.PI * GeoHash.EARTH_RADIUS_KM / 180;
+
+    @Test
+    void encodesLikeStandardGeohash() {
+        // 57.64911, 10.40744 is "u4pruydqqvj" - 'u' = 26, "u4" = 26 << 5 | 4
+        assertEquals(26, new GeoHash(5).encode(57.64911, 10.40744));
+        assertEquals(836, new GeoHash(10).encode(57.64911, 10.40744));
+    }
+
+    @Test
+    void interleavesLongitudeFirst() {
+        GeoHash geoHash = new GeoHash(5);
+        assertEquals(8, geoHash.getLonCells());
+        assertEquals(4, geoHash.getLatCells());
+
+        // lon 101, lat 01 -> 1 0 0 1 1
+        assertEquals(0b10011, geoHash.cell(1, 5));
+        assertEquals(0, geoHash.cell(0, 0));
+        assertEquals(0b11111, geoHash.cell(3, 7));
+    }
+
+    @Test
+    void enumeratesEveryCellOnce() {
+        GeoHash geoHash = new GeoHash(8);
+        boolean[] seen = new boolean[1 << 8];
+        for (int latIdx = 0; latIdx < geoHash.getLatCells(); latIdx++) {
+            for (int lonIdx = 0; lonIdx < geoHash.getLonCells(); lonIdx++) {
+                int cell = (int) geoHash.cell(latIdx, lonIdx);
+                assertFalse(seen[cell], "Cell " + cell + " produced twice");
+                seen[cell] = true;
+            }
+        }
+    }
+
+    @Test
+    void clampsLatitudeAndWrapsLongitude() {
+        GeoHash geoHash = new GeoHash(20);
+        assertEquals(0, geoHash.latIndex(-90));
+        assertEquals(geoHash.getLatCells() - 1, geoHash.latIndex(90));
+
+        // Both sides of the antimeridian are neighbouring cells
+        assertEquals(0, geoHash.lonIndex(-180));
+        assertEquals(0, geoHash.lonIndex(180));
+        assertEquals(geoHash.getLonCells() - 1, geoHash.lonIndex(179.9));
+        assertEquals(geoHash.getLonCells() - 1, geoHash.lonIndex(-180.1));
+        assertEquals(geoHash.lonIndex(-170), geoHash.lonIndex(190));
+    }
+
+    @Test
+    void measuresGreatCircleDistance() {
+        assertEquals(KM_PER_DEGREE, GeoHash.haversineKm(0, 0, 0, 1), 1e-9);
+        assertEquals(KM_PER_DEGREE, GeoHash.haversineKm(0, 179.5, 0, -179.5), 1e-9);
+        assertEquals(Math.PI * GeoHash.EARTH_RADIUS_KM, GeoHash.haversineKm(90, 0, -90, 0), 1e-6);
+
+        // A degree of longitude shrinks with cos(latitude)
+        assertEquals(KM_PER_DEGREE / 2, GeoHash.haversineKm(60, 0, 60, 1), 0.01);
+    }
+}
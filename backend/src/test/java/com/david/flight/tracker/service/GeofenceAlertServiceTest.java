@@ -0,0 +1,153 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.dto.GeofenceEvent;
+import com.david.flight.tracker.model.entity.FlightState;
+import com.david.flight.tracker.model.entity.Geofence;
+import com.david.flight.tracker.repository.GeofenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GeofenceAlertServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    // Two overlapping boxes around Belfast International
+    private static final long OUTER = 1;
+    private static final long INNER = 2;
+
+    private WebSocketService webSocketService;
+    private GeofenceAlertService service;
+
+    @BeforeEach
+    void setUp() {
+        GeofenceRepository geofenceRepository = mock(GeofenceRepository.class);
+        List<Geofence> fences = List.of(
+                geofence(OUTER, "54.5,-6.4;54.5,-6.0;54.8,-6.0;54.8,-6.4"),
+                geofence(INNER, "54.62,-6.25;54.62,-6.17;54.69,-6.17;54.69,-6.25"));
+        when(geofenceRepository.findAll()).thenReturn(fences);
+        when(geofenceRepository.count()).thenReturn(2L);
+        when(geofenceRepository.findTopByOrderByIdDesc()).thenReturn(Optional.of(fences.get(1)));
+
+        webSocketService = mock(WebSocketService.class);
+        service = new GeofenceAlertService();
+        ReflectionTestUtils.setField(service, "geofenceRepository", geofenceRepository);
+        ReflectionTestUtils.setField(service, "webSocketService", webSocketService);
+        ReflectionTestUtils.setField(service, "cellSize", 1.0);
+        ReflectionTestUtils.setField(service, "staleSeconds", 900L);
+    }
+
+    @Test
+    void reportsEnterAndExitPerFence() {
+        // Outside both, into the outer box, across it, into the inner one, then straight out of both
+        assertEquals(List.of(), ingest(OUTER, flight("4ca7b4", 54.3, -6.2, 0)));
+        assertEquals(List.of(GeofenceEvent.Type.ENTER), ingest(OUTER, flight("4ca7b4", 54.55, -6.2, 60)));
+        assertEquals(List.of(), ingest(OUTER, flight("4ca7b4", 54.6, -6.1, 120)));
+        assertEquals(List.of(GeofenceEvent.Type.ENTER), ingest(INNER, flight("4ca7b4", 54.65, -6.21, 180)));
+
+        List<GeofenceEvent> exits = new ArrayList<>();
+        clearInvocations(webSocketService);
+        service.onFlightsIngested(List.of(flight("4ca7b4", 55.5, -6.2, 240)));
+        exits.addAll(broadcast(OUTER));
+        exits.addAll(broadcast(INNER));
+        assertEquals(2, exits.size());
+        exits.forEach(event -> assertEquals(GeofenceEvent.Type.EXIT, event.getType()));
+    }
+
+    @Test
+    void aircraftThatStopsReportingInsideIsLost() throws Exception {
+        ReflectionTestUtils.setField(service, "staleSeconds", 1L);
+
+        FlightState inside = flight("4ca7b4", 54.65, -6.21, 0);
+        ingest(INNER, inside, flight("3c6444", 54.3, -6.2, 0));
+
+        // Only the other aircraft reports again - the one inside goes stale
+        Thread.sleep(1100);
+        service.onFlightsIngested(List.of(flight("3c6444", 54.3, -6.2, 60)));
+
+        for (long fence : new long[]{OUTER, INNER}) {
+            List<GeofenceEvent> events = broadcast(fence);
+            assertEquals(1, events.size());
+            assertEquals(GeofenceEvent.Type.LOST, events.get(0).getType());
+            assertEquals("4ca7b4", events.get(0).getIcao24());
+            assertEquals(inside.getTimestamp(), events.get(0).getTimestamp());
+        }
+
+        // Once lost it is forgotten - a new contact inside is a fresh ENTER
+        clearInvocations(webSocketService);
+        assertEquals(List.of(GeofenceEvent.Type.ENTER), ingest(INNER, flight("4ca7b4", 54.65, -6.21, 120)));
+    }
+
+    @Test
+    void followersTrackMembershipWithoutBroadcasting() {
+        service.onFlightsReplicated(List.of(flight("4ca7b4", 54.65, -6.21, 0)));
+        verify(webSocketService, never()).broadcastGeofenceEvents(anyLong(), any());
+
+        // Taking over as leader does not announce the ENTER again
+        assertEquals(List.of(), ingest(INNER, flight("4ca7b4", 54.66, -6.21, 60)));
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    /**
+     * Ingest one batch and return the event types broadcast for one fence
+     */
+    private List<GeofenceEvent.Type> ingest(long fenceId, FlightState... flights) {
+        clearInvocations(webSocketService);
+        service.onFlightsIngested(List.of(flights));
+        return broadcast(fenceId).stream().map(GeofenceEvent::getType).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<GeofenceEvent> broadcast(long fenceId) {
+        ArgumentCaptor<Long> fences = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<List<GeofenceEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(webSocketService, atLeast(0)).broadcastGeofenceEvents(fences.capture(), events.capture());
+
+        List<GeofenceEvent> result = new ArrayList<>();
+        for (int i = 0; i < fences.getAllValues().size(); i++) {
+            if (fences.getAllValues().get(i) == fenceId) {
+                result.addAll(events.getAllValues().get(i));
+            }
+        }
+        return result;
+    }
+
+    private static Geofence geofence(long id, String polygon) {
+        Geofence geofence = new Geofence();
+        geofence.setId(id);
+        geofence.setName("fence-" + id);
+        geofence.setPolygon(polygon);
+        return geofence;
+    }
+
+    private static FlightState flight(String icao24, double latitude, double longitude, int secondsAfterT0) {
+        FlightState flight = new FlightState();
+        flight.setIcao24(icao24);
+        flight.setCallsign("TEST1");
+        flight.setLatitude(latitude);
+        flight.setLongitude(longitude);
+        flight.setAltitude(3000.0);
+        flight.setOnGround(false);
+        flight.setTimestamp(T0.plusSeconds(secondsAfterT0));
+        return flight;
+    }
+}
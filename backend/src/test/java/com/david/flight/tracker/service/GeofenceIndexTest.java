@@ -0,0 +1,68 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.model.entity.Geofence;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GeofenceIndexTest {
+
+    private static Geofence geofence(long id, String polygon) {
+        Geofence geofence = new Geofence();
+        geofence.setId(id);
+        geofence.setName("fence-" + id);
+        geofence.setPolygon(polygon);
+        return geofence;
+    }
+
+    @Test
+    void matchesPointsInsidePolygon() {
+        // Rough box around Belfast International
+        GeofenceIndex index = GeofenceIndex.build(List.of(
+                geofence(1, "54.62,-6.25;54.62,-6.17;54.69,-6.17;54.69,-6.25")
+        ), 1.0);
+
+        assertArrayEquals(new long[]{1}, index.match(54.6575, -6.2158));
+        assertArrayEquals(new long[0], index.match(54.6, -5.93));
+    }
+
+    @Test
+    void handlesConcavePolygonsAndCellBoundaries() {
+        // L-shape spanning several grid cells
+        GeofenceIndex index = GeofenceIndex.build(List.of(
+                geofence(7, "0,0;0,3;1,3;1,1;3,1;3,0")
+        ), 1.0);
+
+        assertArrayEquals(new long[]{7}, index.match(0.5, 2.5));
+        assertArrayEquals(new long[]{7}, index.match(2.5, 0.5));
+        assertArrayEquals(new long[0], index.match(2.5, 2.5));
+    }
+
+    @Test
+    void returnsOverlappingFencesSorted() {
+        List<Geofence> fences = new ArrayList<>();
+        fences.add(geofence(3, "10,10;10,12;12,12;12,10"));
+        fences.add(geofence(2, "9,9;9,13;13,13;13,9"));
+        fences.add(geofence(5, "50,50;50,51;51,51"));
+
+        GeofenceIndex index = GeofenceIndex.build(fences, 1.0);
+
+        assertArrayEquals(new long[]{2, 3}, index.match(11, 11));
+        assertArrayEquals(new long[]{2}, index.match(12.5, 12.5));
+        assertEquals(3, index.getFenceCount());
+    }
+
+    @Test
+    void skipsMalformedPolygons() {
+        GeofenceIndex index = GeofenceIndex.build(List.of(
+                geofence(1, "10,10;10,12"),
+                geofence(2, "10,10;oops;12,12")
+        ), 1.0);
+
+        assertEquals(0, index.getFenceCount());
+    }
+}
@@ -0,0 +1,89 @@
+package com.david.flight.tracker.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyTrackerTest {
+
+    @Test
+    void everyValueFallsInsideItsBucket() {
+        long[] samples = {0, 1, 3, 4, 7, 8, 9, 15, 16, 100, 999, 1_000, 250_000, 12_345_678};
+        for (long micros : samples) {
+            int bucket = LatencyTracker.bucketFor(micros);
+            assertTrue(micros <= LatencyTracker.bucketUpperMicros(bucket), "upper bound for " + micros);
+            if (bucket > 0) {
+                assertTrue(micros > LatencyTracker.bucketUpperMicros(bucket - 1), "lower bound for " + micros);
+            }
+        }
+    }
+
+    @Test
+    void bucketsAreAtMostAQuarterOctaveWide() {
+        for (int bucket = 8; bucket < 100; bucket++) {
+            long upper = LatencyTracker.bucketUpperMicros(bucket);
+            long lower = LatencyTracker.bucketUpperMicros(bucket - 1) + 1;
+            assertTrue(upper - lower <= lower / 4, "bucket " + bucket);
+        }
+        assertEquals(4, LatencyTracker.bucketFor(4));
+        assertEquals(LatencyTracker.bucketFor(1000), LatencyTracker.bucketFor(1023));
+    }
+
+    @Test
+    void violationsOnlyCountTheRecentWindow() {
+        AtomicLong now = new AtomicLong(0);
+        LatencyTracker tracker = tracker(now);
+
+        for (int i = 0; i < 100; i++) {
+            tracker.record(LatencyTracker.Kind.REST, "GET /api/flights/current", 500_000_000L, null, -1);
+        }
+        assertEquals(List.of("GET /api/flights/current"), tracker.getViolations());
+
+        // Five minutes later the incident has left the window, but stays in the all-time summary
+        now.set(5 * 60_000);
+        assertEquals(List.of(), tracker.getViolations());
+        Map<String, Object> summary = tracker.getStats().get(0);
+        assertTrue((Double) summary.get("p99Ms") >= 250);
+        assertEquals(0.0, summary.get("recentP99Ms"));
+        assertEquals(false, summary.get("violatingSlo"));
+    }
+
+    @Test
+    void newIncidentIsNotDilutedByHistory() {
+        AtomicLong now = new AtomicLong(0);
+        LatencyTracker tracker = tracker(now);
+
+        for (int i = 0; i < 10_000; i++) {
+            tracker.record(LatencyTracker.Kind.REPOSITORY, "FlightStateRepository.count", 1_000_000L, null, -1);
+        }
+        now.set(60 * 60_000);
+        for (int i = 0; i < 100; i++) {
+            tracker.record(LatencyTracker.Kind.REPOSITORY, "FlightStateRepository.count", 300_000_000L, null, -1);
+        }
+
+        // Under 1% of all executions were slow, but all of the recent ones
+        Map<String, Object> summary = tracker.getStats().get(0);
+        assertTrue((Double) summary.get("p99Ms") < 100);
+        assertEquals(List.of("FlightStateRepository.count"), tracker.getViolations());
+    }
+
+    private static LatencyTracker tracker(AtomicLong now) {
+        LatencyTracker tracker = new LatencyTracker();
+        ReflectionTestUtils.setField(tracker, "restSloMs", 250L);
+        ReflectionTestUtils.setField(tracker, "repositorySloMs", 100L);
+        ReflectionTestUtils.setField(tracker, "sloOverrides", "");
+        ReflectionTestUtils.setField(tracker, "slowLogCapacity", 10);
+        ReflectionTestUtils.setField(tracker, "maxArgLength", 200);
+        ReflectionTestUtils.setField(tracker, "windowMinutes", 5);
+        ReflectionTestUtils.setField(tracker, "clock", (LongSupplier) now::get);
+        tracker.init();
+        return tracker;
+    }
+}
@@ -0,0 +1,199 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.model.entity.FlightState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LiveFlightStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private IngestCycleService ingestCycleService;
+    private Path snapshot;
+
+    @BeforeEach
+    void setUp() {
+        ingestCycleService = mock(IngestCycleService.class);
+        when(ingestCycleService.getCurrentVersion()).thenReturn(1L);
+        snapshot = tempDir.resolve("flight-snapshot.bin");
+    }
+
+    @Test
+    void snapshotRoundTripKeepsNullsAndNonAsciiStrings() {
+        LiveFlightStore store = store(false, 120);
+        LocalDateTime now = LocalDateTime.now();
+
+        FlightState first = flight("4ca7b4", now.minusMinutes(6));
+        first.setOriginCountry("Côte d'Ivoire");
+        first.setOperator("Ærø Flyselskab ✈");
+        first.setAircraftModel("Туполев Ту-204");
+        first.setRegistration("JA01ÜŞ");
+        FlightState second = flight("4ca7b4", now.minusMinutes(3));
+        second.setId(null);
+        second.setCallsign(null);
+        second.setAltitude(null);
+        second.setVelocity(null);
+        second.setHeading(null);
+        second.setVerticalRate(null);
+        // On the ground - only in the trail, not in the current positions
+        FlightState parked = flight("3c6444", now.minusMinutes(1));
+        parked.setOnGround(true);
+
+        store.onFlightsIngested(List.of(first, parked));
+        store.onFlightsIngested(List.of(second));
+        store.saveSnapshot();
+        assertTrue(Files.exists(snapshot));
+
+        LiveFlightStore loaded = store(true, 120);
+        loaded.loadSnapshot();
+
+        assertEquals(2, loaded.getSnapshotAircraftLoaded());
+        assertTrue(loaded.isWarm());
+        LocalDateTime since = now.minusMinutes(30);
+        assertEquals(List.of(second), loaded.getCurrentFlights(since));
+        assertEquals(List.of(second, first), loaded.getTrail("4ca7b4", since));
+        assertEquals(List.of(parked), loaded.getTrail("3c6444", since));
+        assertEquals(store.getTrail("4ca7b4", since), loaded.getTrail("4ca7b4", since));
+    }
+
+    @Test
+    void ingestSavesTheSnapshotInTheBackground() throws Exception {
+        LiveFlightStore store = store(true, 120);
+        store.onFlightsIngested(List.of(flight("4ca7b4", LocalDateTime.now())));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Files.exists(snapshot)) {
+            assertTrue(System.currentTimeMillis() < deadline, "Snapshot was not written");
+            Thread.sleep(10);
+        }
+        store.saveOnShutdown();
+
+        LiveFlightStore loaded = store(true, 120);
+        loaded.loadSnapshot();
+        assertEquals(1, loaded.getSnapshotAircraftLoaded());
+    }
+
+    @Test
+    void snapshotLargerThanOneMappingWindowRoundTrips() {
+        LiveFlightStore store = store(false, 120);
+        LocalDateTime now = LocalDateTime.now();
+        List<FlightState> older = new ArrayList<>();
+        List<FlightState> newer = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            String icao24 = String.format("%06x", i);
+            older.add(flight(icao24, now.minusMinutes(5)));
+            newer.add(flight(icao24, now.minusMinutes(2)));
+        }
+        store.onFlightsIngested(older);
+        store.onFlightsIngested(newer);
+
+        // Each window is moved on at least MAX_STATE_BYTES (~230 KB) - the file spans several
+        ReflectionTestUtils.setField(store, "mappingWindowBytes", 4096);
+        store.saveSnapshot();
+
+        LiveFlightStore loaded = store(true, 120);
+        ReflectionTestUtils.setField(loaded, "mappingWindowBytes", 4096);
+        loaded.loadSnapshot();
+
+        assertEquals(3000, loaded.getSnapshotAircraftLoaded());
+        LocalDateTime since = now.minusMinutes(30);
+        assertEquals(List.of(newer.get(2999), older.get(2999)), loaded.getTrail("000bb7", since));
+        assertEquals(store.getCurrentFlights(since).size(), loaded.getCurrentFlights(since).size());
+    }
+
+    @Test
+    void oversizedSnapshotIsSkippedAndTheOldOneRemoved() throws Exception {
+        Files.write(snapshot, new byte[]{1, 2, 3});
+        LiveFlightStore store = store(false, 120);
+        ReflectionTestUtils.setField(store, "snapshotMaxMb", 0L);
+        store.onFlightsIngested(List.of(flight("4ca7b4", LocalDateTime.now())));
+
+        store.saveSnapshot();
+
+        assertFalse(Files.exists(snapshot));
+    }
+
+    @Test
+    void ignoresSnapshotsInAnotherFormat() throws Exception {
+        ByteBuffer header = ByteBuffer.allocate(16);
+        header.putInt(0x464C534E).putInt(1).putLong(System.currentTimeMillis());
+        Files.write(snapshot, header.array());
+
+        LiveFlightStore loaded = store(true, 120);
+        loaded.loadSnapshot();
+
+        assertEquals(0, loaded.size());
+        assertFalse(loaded.isWarm());
+    }
+
+    @Test
+    void fullTrailRingFallsBackToTheDatabase() {
+        LiveFlightStore store = store(false, 3);
+        LocalDateTime now = LocalDateTime.now();
+        FlightState[] points = new FlightState[5];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = flight("4ca7b4", now.minusMinutes(10 - i));
+            store.onFlightsIngested(List.of(points[i]));
+        }
+
+        // Only the 3 newest are kept - anything reaching further back is incomplete
+        assertNull(store.getTrail("4ca7b4", now.minusHours(1)));
+        assertNull(store.getTrail("4ca7b4", points[1].getTimestamp()));
+        assertEquals(List.of(points[4], points[3]), store.getTrail("4ca7b4", points[2].getTimestamp()));
+
+        // A ring with room left holds everything since the store was filled
+        assertEquals(List.of(), store.getTrail("a1b2c3", now.minusHours(1)));
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private LiveFlightStore store(boolean snapshotEnabled, int trailMaxPoints) {
+        LiveFlightStore store = new LiveFlightStore();
+        ReflectionTestUtils.setField(store, "ingestCycleService", ingestCycleService);
+        ReflectionTestUtils.setField(store, "snapshotEnabled", snapshotEnabled);
+        ReflectionTestUtils.setField(store, "snapshotPath", snapshot.toString());
+        ReflectionTestUtils.setField(store, "trailHours", 2L);
+        ReflectionTestUtils.setField(store, "trailMaxPoints", trailMaxPoints);
+        ReflectionTestUtils.setField(store, "snapshotMaxAgeSeconds", 3600L);
+        ReflectionTestUtils.setField(store, "snapshotMaxMb", 512L);
+        // As if the store had been filled an hour ago - trails are complete from then on
+        ReflectionTestUtils.setField(store, "coveredSince", LocalDateTime.now().minusHours(1));
+        return store;
+    }
+
+    private static FlightState flight(String icao24, LocalDateTime timestamp) {
+        FlightState flight = new FlightState();
+        flight.setId(42L);
+        flight.setIcao24(icao24);
+        flight.setCallsign("EIN123");
+        flight.setOriginCountry("Ireland");
+        flight.setLatitude(53.4);
+        flight.setLongitude(-6.2);
+        flight.setAltitude(10000.0);
+        flight.setVelocity(230.0);
+        flight.setHeading(90.0);
+        flight.setVerticalRate(0.0);
+        flight.setOnGround(false);
+        flight.setTimestamp(timestamp);
+        return flight;
+    }
+}
@@ -0,0 +1,195 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.dto.ClosestApproach;
+import com.david.flight.tracker.dto.NearbyFlight;
+import com.david.flight.tracker.model.entity.FlightState;
+import com.david.flight.tracker.repository.FlightStateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NearbyFlightIndexTest {
+
+    private static final double KM_PER_DEGREE = Math.PI * GeoHash.EARTH_RADIUS_KM / 180;
+
+    private FlightStateRepository flightStateRepository;
+    private IngestCycleService ingestCycleService;
+    private NearbyFlightIndex index;
+
+    @BeforeEach
+    void setUp() {
+        flightStateRepository = mock(FlightStateRepository.class);
+        ingestCycleService = mock(IngestCycleService.class);
+        index = new NearbyFlightIndex();
+        ReflectionTestUtils.setField(index, "flightStateRepository", flightStateRepository);
+        ReflectionTestUtils.setField(index, "ingestCycleService", ingestCycleService);
+        ReflectionTestUtils.setField(index, "geohashBits", 20);
+        ReflectionTestUtils.setField(index, "maxAgeSeconds", 300L);
+        ReflectionTestUtils.setField(index, "maxResults", 5000);
+        index.init();
+    }
+
+    @Test
+    void refinesCellCandidatesWithHaversine() {
+        List<FlightState> flights = filler();
+        flights.add(flight("inside", 53.2, -6.1));
+        // Inside the bounding box and its cells, but ~65 km from the centre
+        flights.add(flight("corner", 53.4, -5.3));
+        index.onFlightsIngested(flights);
+
+        List<NearbyFlight> found = index.findNearby(53.0, -6.0, 50.0, null);
+
+        assertEquals(List.of("inside"), icao24s(found));
+        assertEquals(GeoHash.haversineKm(53.0, -6.0, 53.2, -6.1), found.get(0).getDistanceKm(), 1e-9);
+        verify(flightStateRepository, never()).findLatestPositions(any());
+    }
+
+    @Test
+    void searchesAcrossTheAntimeridian() {
+        List<FlightState> flights = filler();
+        flights.add(flight("east", 0.0, 179.9));
+        flights.add(flight("west", 0.0, -179.8));
+        index.onFlightsIngested(flights);
+
+        List<NearbyFlight> found = index.findNearby(0.0, 179.95, 50.0, null);
+
+        assertEquals(List.of("east", "west"), icao24s(found));
+        assertEquals(0.25 * KM_PER_DEGREE, found.get(1).getDistanceKm(), 1e-6);
+    }
+
+    @Test
+    void widensTheRadiusUntilKAreFound() {
+        List<FlightState> flights = filler();
+        flights.add(flight("d10", 10 / KM_PER_DEGREE, 0.0));
+        flights.add(flight("d100", -100 / KM_PER_DEGREE, 0.0));
+        flights.add(flight("d1000", 0.0, 1000 / KM_PER_DEGREE));
+        flights.add(flight("d5000", 5000 / KM_PER_DEGREE, 0.0));
+        index.onFlightsIngested(flights);
+
+        // 50 km holds one, 200 km two, 800 km still two, 3200 km three
+        assertEquals(List.of("d10", "d100", "d1000"), icao24s(index.findNearby(0.0, 0.0, null, 3)));
+        assertEquals(List.of("d10"), icao24s(index.findNearby(0.0, 0.0, null, 1)));
+
+        // The radius still caps the search when fewer than k are inside it
+        assertEquals(List.of("d10", "d100"), icao24s(index.findNearby(0.0, 0.0, 150.0, 3)));
+    }
+
+    @Test
+    void loadsFromTheDatabaseWhenNotFed() {
+        when(ingestCycleService.getCurrentVersion()).thenReturn(7L);
+        when(flightStateRepository.findLatestPositions(any())).thenReturn(List.of(flight("4ca7b4", 53.4, -6.2)));
+
+        assertEquals(List.of("4ca7b4"), icao24s(index.findNearby(53.4, -6.2, 10.0, null)));
+        index.findNearby(53.4, -6.2, 10.0, null);
+
+        // Loaded once per data version
+        verify(flightStateRepository).findLatestPositions(any());
+    }
+
+    @Test
+    void splitsHistoricalBoxesAtTheAntimeridian() {
+        LocalDateTime from = LocalDateTime.now().minusHours(1);
+        LocalDateTime to = LocalDateTime.now();
+        double dLon = (50 / KM_PER_DEGREE) / Math.cos(Math.toRadians(50 / KM_PER_DEGREE));
+
+        double[] crossing = historicalBoxes(0.0, 179.9, 50.0, from, to, null);
+        assertEquals(179.9 - dLon, crossing[0], 1e-9);
+        assertEquals(180, crossing[1]);
+        assertEquals(-180, crossing[2]);
+        assertEquals(179.9 + dLon - 360, crossing[3], 1e-9);
+
+        double[] plain = historicalBoxes(0.0, 10.0, 50.0, from, to, null);
+        assertEquals(plain[0], plain[2]);
+        assertEquals(plain[1], plain[3]);
+        assertEquals(10.0 - dLon, plain[0], 1e-9);
+
+        // Around a pole every longitude is in range
+        double[] polar = historicalBoxes(89.9, 0.0, 50.0, from, to, null);
+        assertEquals(-180, polar[0]);
+        assertEquals(180, polar[1]);
+    }
+
+    @Test
+    void mapsClosestApproachesAndCapsTheLimit() {
+        ClosestApproach row = mock(ClosestApproach.class);
+        when(row.getId()).thenReturn(42L);
+        when(row.getIcao24()).thenReturn("4ca7b4");
+        when(row.getCallsign()).thenReturn("EIN123");
+        when(row.getLatitude()).thenReturn(53.4);
+        when(row.getLongitude()).thenReturn(-6.2);
+        when(row.getOnGround()).thenReturn(false);
+        when(row.getDistanceKm()).thenReturn(3.5);
+        when(flightStateRepository.findClosestApproaches(anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), any(), any(), anyInt()))
+                .thenReturn(List.of(row));
+
+        LocalDateTime from = LocalDateTime.now().minusHours(1);
+        LocalDateTime to = LocalDateTime.now();
+        List<NearbyFlight> found = index.findPassedNear(53.4, -6.2, 20.0, from, to, 100_000);
+
+        assertEquals(1, found.size());
+        assertEquals(42L, found.get(0).getFlight().getId());
+        assertEquals("EIN123", found.get(0).getFlight().getCallsign());
+        assertEquals(3.5, found.get(0).getDistanceKm());
+        verify(flightStateRepository).findClosestApproaches(eq(53.4), eq(-6.2), eq(20.0), eq(GeoHash.EARTH_RADIUS_KM),
+                anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                eq(from), eq(to), eq(5000));
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private double[] historicalBoxes(double lat, double lon, double radiusKm,
+                                     LocalDateTime from, LocalDateTime to, Integer k) {
+        index.findPassedNear(lat, lon, radiusKm, from, to, k);
+
+        ArgumentCaptor<Double> minLon1 = ArgumentCaptor.forClass(Double.class);
+        ArgumentCaptor<Double> maxLon1 = ArgumentCaptor.forClass(Double.class);
+        ArgumentCaptor<Double> minLon2 = ArgumentCaptor.forClass(Double.class);
+        ArgumentCaptor<Double> maxLon2 = ArgumentCaptor.forClass(Double.class);
+        verify(flightStateRepository).findClosestApproaches(eq(lat), eq(lon), eq(radiusKm), anyDouble(),
+                anyDouble(), anyDouble(), minLon1.capture(), maxLon1.capture(), minLon2.capture(), maxLon2.capture(),
+                eq(from), eq(to), anyInt());
+        return new double[]{minLon1.getValue(), maxLon1.getValue(), minLon2.getValue(), maxLon2.getValue()};
+    }
+
+    // Enough far-away aircraft that small searches visit cells rather than scanning everything
+    private static List<FlightState> filler() {
+        List<FlightState> flights = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            flights.add(flight("filler" + i, -40.0, -90.0 + i * 0.1));
+        }
+        return flights;
+    }
+
+    private static FlightState flight(String icao24, double lat, double lon) {
+        FlightState flight = new FlightState();
+        flight.setIcao24(icao24);
+        flight.setLatitude(lat);
+        flight.setLongitude(lon);
+        flight.setOnGround(false);
+        flight.setTimestamp(LocalDateTime.now());
+        return flight;
+    }
+
+    private static List<String> icao24s(List<NearbyFlight> found) {
+        return found.stream().map(nearby -> nearby.getFlight().getIcao24()).toList();
+    }
+}
@@ -0,0 +1,112 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.dto.OpenSkyResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayFlightSourceTest {
+
+    // Replay runs this much slower than wall-clock time, so the time the test itself
+    // takes never moves it onto another capture
+    private static final double SPEED = 0.001;
+
+    @TempDir
+    Path recordings;
+
+    @Test
+    void returnsTheLatestCaptureAtTheRecordedTime() throws Exception {
+        ReplayFlightSource source = source(true, 1000, 1010, 1030);
+
+        assertEquals("C1000", callsignAt(source, 0));
+        assertEquals("C1000", callsignAt(source, 9));
+        assertEquals("C1010", callsignAt(source, 10));
+        assertEquals("C1010", callsignAt(source, 29));
+        assertEquals("C1030", callsignAt(source, 30));
+    }
+
+    @Test
+    void loopsBackToTheFirstCapture() throws Exception {
+        ReplayFlightSource source = source(true, 1000, 1010, 1030);
+
+        // 30s of recording; 31s in is the start again
+        assertEquals("C1000", callsignAt(source, 31));
+        assertEquals("C1010", callsignAt(source, 42));
+        assertEquals("C1030", callsignAt(source, 61));
+    }
+
+    @Test
+    void stopsAtTheEndWithoutLoop() throws Exception {
+        ReplayFlightSource source = source(false, 1000, 1010, 1030);
+
+        assertEquals("C1030", callsignAt(source, 30));
+        startedSecondsAgo(source, 31);
+        assertNull(source.fetchStates());
+    }
+
+    @Test
+    void shiftsTimestampsToNow() throws Exception {
+        ReplayFlightSource source = source(true, 1000, 1010);
+        startedSecondsAgo(source, 10);
+
+        long before = System.currentTimeMillis() / 1000;
+        OpenSkyResponse response = source.fetchStates();
+        long after = System.currentTimeMillis() / 1000;
+
+        // Capture 1010 had time_position 1005 and last_contact 1010
+        long shift = response.getTime() - 1010;
+        assertTrue(response.getTime() >= before && response.getTime() <= after);
+        List<Object> state = response.getStates().get(0);
+        assertEquals(1005 + shift, ((Number) state.get(3)).longValue());
+        assertEquals(1010 + shift, ((Number) state.get(4)).longValue());
+        assertNull(state.get(7));
+    }
+
+    @Test
+    void returnsNothingWithoutCaptures() throws Exception {
+        Files.writeString(recordings.resolve("notes.txt"), "not a capture");
+        ReplayFlightSource source = source(true);
+
+        assertNull(source.fetchStates());
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private ReplayFlightSource source(boolean loop, long... captureTimes) throws Exception {
+        for (long time : captureTimes) {
+            Files.writeString(recordings.resolve("states-" + time + ".json"), """
+                    {"time": %d, "states": [["4ca7b4", "C%d", "Ireland", %d, %d, -6.2, 53.4, null, false, 230.0, 90.0, 0.0]]}
+                    """.formatted(time, time, time - 5, time));
+        }
+
+        ReplayFlightSource source = new ReplayFlightSource();
+        ReflectionTestUtils.setField(source, "replayDir", recordings.toString());
+        ReflectionTestUtils.setField(source, "speed", SPEED);
+        ReflectionTestUtils.setField(source, "loop", loop);
+        ReflectionTestUtils.setField(source, "jsonMapper", JsonMapper.builder().build());
+        source.init();
+        return source;
+    }
+
+    private static void startedSecondsAgo(ReplayFlightSource source, long recordedSeconds) {
+        // Half a second into the recorded second, so rounding never lands on the previous one
+        long wallClockMillis = (long) ((recordedSeconds + 0.5) * 1000 / SPEED);
+        ReflectionTestUtils.setField(source, "replayStartMillis", System.currentTimeMillis() - wallClockMillis);
+    }
+
+    private static String callsignAt(ReplayFlightSource source, long recordedSeconds) throws Exception {
+        startedSecondsAgo(source, recordedSeconds);
+        return (String) source.fetchStates().getStates().get(0).get(1);
+    }
+}
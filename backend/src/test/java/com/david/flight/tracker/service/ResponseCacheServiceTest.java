@@ -0,0 +1,157 @@
+package com.david.flight.tracker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResponseCacheServiceTest {
+
+    private IngestCycleService ingestCycleService;
+    private ResponseCacheService service;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        ingestCycleService = mock(IngestCycleService.class);
+        when(ingestCycleService.getCurrentVersion()).thenReturn(1L);
+
+        service = new ResponseCacheService();
+        ReflectionTestUtils.setField(service, "ingestCycleService", ingestCycleService);
+        ReflectionTestUtils.setField(service, "jsonMapper", JsonMapper.builder().build());
+        ReflectionTestUtils.setField(service, "maxEntries", 1000);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void matchingIfNoneMatchGets304WithoutLoading() {
+        ResponseEntity<byte[]> first = service.serve("current", request(null), loader("a"));
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        String etag = first.getHeaders().getETag();
+
+        ResponseEntity<byte[]> second = service.serve("current", request(etag), loader("a"));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());
+        assertNull(second.getBody());
+        assertEquals(etag, second.getHeaders().getETag());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void servesFromTheCacheUntilTheVersionChanges() {
+        ResponseEntity<byte[]> first = service.serve("stats", request(null), loader("v1"));
+        service.serve("stats", request(null), loader("v1"));
+        assertEquals(1, loads.get());
+
+        when(ingestCycleService.getCurrentVersion()).thenReturn(2L);
+
+        // The old ETag no longer matches and the body is loaded again
+        ResponseEntity<byte[]> afterIngest = service.serve("stats", request(first.getHeaders().getETag()), loader("v2"));
+
+        assertEquals(HttpStatus.OK, afterIngest.getStatusCode());
+        assertEquals(2, loads.get());
+        assertEquals("{\"value\":\"v2\"}", new String(afterIngest.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void fullCacheServesNewKeysUncached() {
+        ReflectionTestUtils.setField(service, "maxEntries", 2);
+
+        service.serve("a", request(null), loader("a"));
+        service.serve("b", request(null), loader("b"));
+        ResponseEntity<byte[]> third = service.serve("c", request(null), loader("c"));
+
+        assertEquals(HttpStatus.OK, third.getStatusCode());
+        assertEquals(2, service.size());
+
+        // Cached keys are still hits, the one that didn't fit loads every time
+        service.serve("a", request(null), loader("a"));
+        service.serve("c", request(null), loader("c"));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<Object> slowLoader = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Map.of("value", "slow");
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<byte[]>> first = executor.submit(() -> service.serve("trail", request(null), slowLoader));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<ResponseEntity<byte[]>> second = executor.submit(() -> service.serve("trail", request(null), slowLoader));
+
+            // Other keys are not held up by the slow load
+            service.serve("stats", request(null), loader("fast"));
+
+            release.countDown();
+            assertArrayEquals(first.get(5, TimeUnit.SECONDS).getBody(), second.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals(2, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedLoadsAreNotCached() {
+        assertThrows(IllegalStateException.class, () -> service.serve("current", request(null), () -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertEquals(0, service.size());
+
+        ResponseEntity<byte[]> retry = service.serve("current", request(null), loader("a"));
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals(1, service.size());
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private Supplier<Object> loader(String value) {
+        return () -> {
+            loads.incrementAndGet();
+            return Map.of("value", value);
+        };
+    }
+
+    private static MockHttpServletRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,132 @@
+package com.david.flight.tracker.service;
+
+import com.david.flight.tracker.dto.OpenSkyResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyntheticFlightSourceTest {
+
+    private static final int AIRCRAFT = 500;
+
+    @Test
+    void routesAreBetween500And8000Km() {
+        SyntheticFlightSource source = source(42);
+        double[] routeAngle = field(source, "routeAngle");
+
+        for (double angle : routeAngle) {
+            double km = angle * GeoHash.EARTH_RADIUS_KM;
+            assertTrue(km >= 500 && km <= 8000, "Route of " + km + " km");
+        }
+    }
+
+    @Test
+    void slerpRunsFromStartToDestination() {
+        SyntheticFlightSource source = source(42);
+        for (int i = 0; i < AIRCRAFT; i += 50) {
+            assertArrayEquals(vector(source, "a", i), slerp(source, i, 0.0), 1e-9);
+            assertArrayEquals(vector(source, "b", i), slerp(source, i, 1.0), 1e-9);
+
+            // Halfway is a unit vector the same distance from both ends
+            double[] mid = slerp(source, i, 0.5);
+            assertEquals(1.0, Math.sqrt(dot(mid, mid)), 1e-9);
+            assertEquals(angle(vector(source, "a", i), mid), angle(mid, vector(source, "b", i)), 1e-9);
+        }
+    }
+
+    @Test
+    void everyAircraftIsOnItsRoute() {
+        SyntheticFlightSource source = source(42);
+        OpenSkyResponse response = source.fetchStates();
+        double[] routeAngle = field(source, "routeAngle");
+
+        assertEquals(AIRCRAFT, response.getStates().size());
+        for (int i = 0; i < AIRCRAFT; i++) {
+            List<Object> state = response.getStates().get(i);
+            double lon = (Double) state.get(5);
+            double lat = (Double) state.get(6);
+            double heading = (Double) state.get(10);
+            assertTrue(lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180, "Position " + lat + "," + lon);
+            assertTrue(heading >= 0 && heading < 360, "Heading " + heading);
+
+            // On the great circle between start and destination, not past either end
+            double[] position = unitVector(lat, lon);
+            double along = angle(vector(source, "a", i), position) + angle(position, vector(source, "b", i));
+            assertEquals(routeAngle[i], along, 1e-6, "Aircraft " + i + " is off its route");
+        }
+    }
+
+    @Test
+    void arrivedAircraftStartTheNextLegAtTheirDestination() {
+        SyntheticFlightSource source = source(42);
+        double[] destination = vector(source, "b", 7);
+        long[] departedMillis = field(source, "departedMillis");
+        departedMillis[7] = 0;
+
+        List<Object> state = source.fetchStates().getStates().get(7);
+
+        assertArrayEquals(destination, vector(source, "a", 7), 0);
+        double[] position = unitVector((Double) state.get(6), (Double) state.get(5));
+        assertTrue(angle(destination, position) < 1e-3, "Next leg should start at the previous destination");
+    }
+
+    @Test
+    void sameSeedGivesTheSameFleet() {
+        SyntheticFlightSource first = source(7);
+        SyntheticFlightSource second = source(7);
+
+        assertArrayEquals((double[]) field(first, "routeAngle"), field(second, "routeAngle"));
+        assertArrayEquals((double[]) field(first, "speed"), field(second, "speed"));
+        assertEquals("100003", first.fetchStates().getStates().get(3).get(0));
+    }
+
+    // ===================================================================
+    // HELPER METHODS
+    // ===================================================================
+
+    private static SyntheticFlightSource source(long seed) {
+        SyntheticFlightSource source = new SyntheticFlightSource();
+        ReflectionTestUtils.setField(source, "aircraftCount", AIRCRAFT);
+        ReflectionTestUtils.setField(source, "seed", seed);
+        source.init();
+        return source;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T field(SyntheticFlightSource source, String name) {
+        return (T) ReflectionTestUtils.getField(source, name);
+    }
+
+    /**
+     * Route start ("a") or destination ("b") of an aircraft
+     */
+    private static double[] vector(SyntheticFlightSource source, String end, int i) {
+        double[] x = field(source, end + "x");
+        double[] y = field(source, end + "y");
+        double[] z = field(source, end + "z");
+        return new double[]{x[i], y[i], z[i]};
+    }
+
+    private static double[] slerp(SyntheticFlightSource source, int i, double fraction) {
+        return ReflectionTestUtils.invokeMethod(source, "slerp", i, fraction);
+    }
+
+    private static double[] unitVector(double lat, double lon) {
+        double phi = Math.toRadians(lat);
+        double lambda = Math.toRadians(lon);
+        return new double[]{Math.cos(phi) * Math.cos(lambda), Math.cos(phi) * Math.sin(lambda), Math.sin(phi)};
+    }
+
+    private static double angle(double[] a, double[] b) {
+        return Math.acos(Math.max(-1, Math.min(1, dot(a, b))));
+    }
+
+    private static double dot(double[] a, double[] b) {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    }
+}
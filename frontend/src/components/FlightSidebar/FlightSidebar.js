@@ -30,6 +30,23 @@ function FlightSidebar({ flight, onClose, onShowTrail }) {
                                 <span className="info-label">Country</span>
                                 <span className="info-value">{flight.originCountry || 'Unknown'}</span>
                             </div>
+                            <div className="info-item">
+                                <span className="info-label">Type</span>
+                                <span className="info-value">
+                  {flight.aircraftType || 'Unknown'}
+                                    {flight.aircraftModel && (
+                                        <span className="info-subvalue">{flight.aircraftModel}</span>
+                                    )}
+                </span>
+                            </div>
+                            <div className="info-item">
+                                <span className="info-label">Registration</span>
+                                <span className="info-value">{flight.registration || 'Unknown'}</span>
+                            </div>
+                            <div className="info-item">
+                                <span className="info-label">Operator</span>
+                                <span className="info-value">{flight.operator || 'Unknown'}</span>
+                            </div>
                         </div>
                     </div>
 
@@ -50,13 +50,13 @@ export const getFlightTrail = async (icao24) => {
     }
 };
 
-// Search flights by callsign
+// Search flights by callsign (first page of matches)
 export const searchFlights = async (callsign) => {
     try {
         const response = await api.get('/api/flights/search', {
             params: { callsign }
         });
-        return response.data;
+        return response.data.items;
     } catch (error) {
         console.error('❌ Error searching flights:', error);
         throw error;